@@ -0,0 +1,41 @@
+// Writes .gz and .br siblings for the compressible files in build/, so the
+// backend can serve them by Accept-Encoding without compressing per request.
+// Runs automatically after `npm run build` (see "postbuild" in package.json).
+
+const fs = require("fs");
+const path = require("path");
+const zlib = require("zlib");
+
+const buildDir = path.join(__dirname, "..", "build");
+const compressible = /\.(js|css|html|json|svg|txt|map|ico)$/;
+const minBytes = 1024;
+
+function walk(dir) {
+  return fs.readdirSync(dir, { withFileTypes: true }).flatMap((entry) => {
+    const file = path.join(dir, entry.name);
+    return entry.isDirectory() ? walk(file) : [file];
+  });
+}
+
+let count = 0;
+for (const file of walk(buildDir)) {
+  if (!compressible.test(file)) {
+    continue;
+  }
+  const contents = fs.readFileSync(file);
+  if (contents.length < minBytes) {
+    continue;
+  }
+  fs.writeFileSync(`${file}.gz`, zlib.gzipSync(contents, { level: zlib.constants.Z_BEST_COMPRESSION }));
+  fs.writeFileSync(
+    `${file}.br`,
+    zlib.brotliCompressSync(contents, {
+      params: {
+        [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+        [zlib.constants.BROTLI_PARAM_SIZE_HINT]: contents.length,
+      },
+    })
+  );
+  count++;
+}
+console.log(`precompress: wrote .gz and .br for ${count} files in ${buildDir}`);
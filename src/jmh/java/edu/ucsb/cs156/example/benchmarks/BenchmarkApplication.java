@@ -0,0 +1,68 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import edu.ucsb.cs156.example.ExampleApplication;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Starts the full application against a private in-memory H2 database,
+ * so benchmarks exercise the real controllers, repositories, security
+ * and aspects.
+ *
+ * Scans the same packages as {@link ExampleApplication}, minus the test
+ * configuration that is also on the benchmark classpath.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@AutoConfigurationPackage(basePackageClasses = ExampleApplication.class)
+@ComponentScan(basePackageClasses = ExampleApplication.class, excludeFilters = {
+    @Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ExampleApplication.class),
+    @Filter(type = FilterType.REGEX, pattern = "edu\\.ucsb\\.cs156\\.example\\.testconfig\\..*") })
+public class BenchmarkApplication {
+
+  public static ConfigurableApplicationContext start(String databaseName) {
+    // JMH runs @Setup and the benchmark methods on different threads,
+    // so the security context has to be shared between them.
+    SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+
+    SpringApplication application = new SpringApplication(BenchmarkApplication.class);
+    return application.run(
+        "--server.port=0",
+        "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "--spring.jpa.hibernate.ddl-auto=create-drop",
+        "--spring.devtools.restart.enabled=false",
+        "--logging.level.root=WARN",
+        "--logging.level.sql=WARN",
+        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+  }
+
+  public static void authenticate(String... roles) {
+    authenticate(new TestingAuthenticationToken("benchmark", "benchmark", roles));
+  }
+
+  public static void authenticate(Authentication authentication) {
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+  }
+
+  /**
+   * A fresh request without conditional headers, for handlers that take the
+   * WebRequest to answer conditional GETs; it never matches the ETag, so the
+   * handler always does the full work.
+   */
+  public static WebRequest request() {
+    return new ServletWebRequest(new MockHttpServletRequest());
+  }
+}
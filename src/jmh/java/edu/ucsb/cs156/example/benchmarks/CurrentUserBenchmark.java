@@ -0,0 +1,79 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.services.CurrentUserService;
+import edu.ucsb.cs156.example.services.OAuth2LoginUserService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+
+/**
+ * What every /api/currentUser poll costs once a user has logged in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CurrentUserBenchmark {
+
+  private ConfigurableApplicationContext context;
+  private CurrentUserService currentUserService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start("currentuser");
+
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put("sub", "1234567890");
+    attributes.put("email", "someone@ucsb.edu");
+    attributes.put("name", "Some One");
+    attributes.put("given_name", "Some");
+    attributes.put("family_name", "One");
+    attributes.put("picture", "https://example.org/someone.jpg");
+    attributes.put("email_verified", true);
+    attributes.put("locale", "en");
+    attributes.put("hd", "ucsb.edu");
+    attributes.put(OAuth2LoginUserService.USER_ID_ATTRIBUTE, 1L);
+    attributes.put(OAuth2LoginUserService.ADMIN_ATTRIBUTE, false);
+    List<GrantedAuthority> authorities = List.of(
+        new OAuth2UserAuthority("ROLE_USER", attributes),
+        new SimpleGrantedAuthority("ROLE_MEMBER"));
+    DefaultOAuth2User principal = new DefaultOAuth2User(authorities, attributes, "sub");
+    BenchmarkApplication.authenticate(new OAuth2AuthenticationToken(principal, authorities, "google"));
+
+    currentUserService = context.getBean(CurrentUserService.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public CurrentUser getCurrentUser() {
+    return currentUserService.getCurrentUser();
+  }
+}
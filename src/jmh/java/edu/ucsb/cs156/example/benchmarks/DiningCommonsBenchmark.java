@@ -0,0 +1,63 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import edu.ucsb.cs156.example.controllers.UCSBDiningCommonsController;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiningCommonsBenchmark {
+
+  private ConfigurableApplicationContext context;
+  private UCSBDiningCommonsController controller;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start("diningcommons");
+    BenchmarkApplication.authenticate("ROLE_USER");
+
+    UCSBDiningCommonsRepository repository = context.getBean(UCSBDiningCommonsRepository.class);
+    for (String code : new String[] { "carrillo", "de-la-guerra", "ortega", "portola" }) {
+      repository.save(UCSBDiningCommons.builder()
+          .code(code)
+          .name(code)
+          .hasSackMeal(true)
+          .hasTakeOutMeal(true)
+          .hasDiningCam(true)
+          .latitude(34.41)
+          .longitude(-119.85)
+          .build());
+    }
+    controller = context.getBean(UCSBDiningCommonsController.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public UCSBDiningCommons getById() {
+    return controller.getById(BenchmarkApplication.request(), "ortega");
+  }
+}
@@ -0,0 +1,84 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.controllers.BookController;
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.repositories.BookRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * The /all listing, both unbounded and as one keyset page, including
+ * JSON serialization of the result as the endpoint would do it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListingBenchmark {
+
+  @Param({ "10000", "100000" })
+  public int rows;
+
+  private ConfigurableApplicationContext context;
+  private BookController controller;
+  private ObjectMapper mapper;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start("listing" + rows);
+    BenchmarkApplication.authenticate("ROLE_USER");
+
+    // saved through the repository so the ids come from book_seq (and are
+    // batched like the bulk endpoint's inserts); in a fresh database they
+    // run 1..rows, which keysetPageFromMiddle relies on
+    List<Book> books = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      books.add(Book.builder()
+          .name("Book " + i)
+          .author("Author " + (i % 500))
+          .genre("Genre " + (i % 20))
+          .wordcount(1000L + i)
+          .build());
+    }
+    context.getBean(BookRepository.class).saveAll(books);
+
+    controller = context.getBean(BookController.class);
+    mapper = context.getBean(ObjectMapper.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public byte[] allBooks() throws Exception {
+    return mapper.writeValueAsBytes(controller.allBooks(BenchmarkApplication.request(), null, null).getBody());
+  }
+
+  @Benchmark
+  public byte[] keysetPageFromMiddle() throws Exception {
+    return mapper.writeValueAsBytes(controller.allBooks(BenchmarkApplication.request(), (long) rows / 2, 100).getBody());
+  }
+}
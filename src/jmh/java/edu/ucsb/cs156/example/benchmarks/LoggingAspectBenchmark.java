@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import edu.ucsb.cs156.example.aop.LoggingAspect;
+import edu.ucsb.cs156.example.services.RequestMetricsService;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+
+/**
+ * Overhead LoggingAspect adds to a controller call: the same trivial
+ * handler called directly and through an AOP proxy carrying the aspect.
+ * No request is bound to the thread, so the log line itself is excluded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingAspectBenchmark {
+
+  public static class Handler {
+    @GetMapping("/benchmark")
+    public String handle() {
+      return "ok";
+    }
+  }
+
+  private Handler direct;
+  private Handler advised;
+
+  @Setup
+  public void setUp() {
+    LoggingAspect aspect = new LoggingAspect();
+    ReflectionTestUtils.setField(aspect, "requestMetricsService", new RequestMetricsService());
+
+    direct = new Handler();
+    AspectJProxyFactory factory = new AspectJProxyFactory(new Handler());
+    factory.setProxyTargetClass(true);
+    factory.addAspect(aspect);
+    advised = factory.getProxy();
+  }
+
+  @Benchmark
+  public String direct() {
+    return direct.handle();
+  }
+
+  @Benchmark
+  public String advised() {
+    return advised.handle();
+  }
+}
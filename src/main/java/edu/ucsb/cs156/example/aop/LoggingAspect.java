@@ -1,19 +1,25 @@
 package edu.ucsb.cs156.example.aop;
 
+import edu.ucsb.cs156.example.services.RequestMetricsService;
+import edu.ucsb.cs156.example.services.RequestMetricsService.HandlerRecorder;
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.servlet.http.HttpServletRequest;
 
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.lang.reflect.Method;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Slf4j
 @Aspect
@@ -29,25 +35,56 @@ public class LoggingAspect {
       @annotation(org.springframework.web.bind.annotation.PatchMapping)
       """;
 
-  private ArrayList<String> stoplist = new ArrayList<String>(Arrays.asList(
-      "edu.ucsb.cs156.example.controllers.FrontendProxyController"));
-
-  @Before(pointcut)
-  public void logControllers(JoinPoint joinPoint) {
-    getCurrentHttpRequest().ifPresent(
-        request -> {
-          String declaringTypeName = joinPoint.getSignature().getDeclaringTypeName();
-          if (!stoplist.contains(declaringTypeName)) {
-            log.info("===== %s %s handled by %s in %s".formatted(request.getMethod(), request.getRequestURI(),
-                joinPoint.getSignature().getName(), declaringTypeName));
-          }
-        });
+  private static final Set<String> stoplist = Set.of(
+      "edu.ucsb.cs156.example.controllers.FrontendProxyController");
+
+  // Stoplist decision and recorder lookup, computed once per handler method;
+  // an empty recorder means the handler is on the stoplist.
+  private final ConcurrentMap<Method, Optional<HandlerRecorder>> handlers = new ConcurrentHashMap<>();
+
+  @Autowired
+  RequestMetricsService requestMetricsService;
+
+  @Around(pointcut)
+  public Object instrumentControllers(ProceedingJoinPoint joinPoint) throws Throwable {
+    Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    Optional<HandlerRecorder> handler = handlers.computeIfAbsent(method, this::recorderFor);
+    if (handler.isEmpty()) {
+      return joinPoint.proceed();
+    }
+
+    if (log.isInfoEnabled()) {
+      getCurrentHttpRequest().ifPresent(
+          request -> log.info("===== {} {} handled by {} in {}", request.getMethod(), request.getRequestURI(),
+              method.getName(), method.getDeclaringClass().getName()));
+    }
+
+    HandlerRecorder recorder = handler.get();
+    boolean failed = true;
+    long start = System.nanoTime();
+    recorder.start();
+    try {
+      Object result = joinPoint.proceed();
+      failed = false;
+      return result;
+    } finally {
+      recorder.stop(System.nanoTime() - start, failed);
+    }
+  }
+
+  private Optional<HandlerRecorder> recorderFor(Method method) {
+    if (stoplist.contains(method.getDeclaringClass().getName())) {
+      return Optional.empty();
+    }
+    String handler = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    return Optional.of(requestMetricsService.recorderFor(handler));
   }
 
   private static Optional<HttpServletRequest> getCurrentHttpRequest() {
-    return Optional.ofNullable(RequestContextHolder.getRequestAttributes())
-        .filter(ServletRequestAttributes.class::isInstance)
-        .map(ServletRequestAttributes.class::cast)
-        .map(ServletRequestAttributes::getRequest);
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes instanceof ServletRequestAttributes) {
+      return Optional.of(((ServletRequestAttributes) attributes).getRequest());
+    }
+    return Optional.empty();
   }
 }
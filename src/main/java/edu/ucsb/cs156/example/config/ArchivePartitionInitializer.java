@@ -0,0 +1,113 @@
+package edu.ucsb.cs156.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates ucsbdates_archive on Postgres as a table partitioned by quarter,
+ * before Hibernate looks at the schema.
+ *
+ * ddl-auto would otherwise create the archive as a plain table at first
+ * start, and a plain table cannot be turned into a partitioned one in place.
+ * So the entity manager factory is made to depend on this bean, which
+ * creates the partitioned parent and its default partition. If an earlier
+ * start already left a plain table behind, its rows are moved into a new
+ * partitioned one. All of this happens in one transaction and does nothing
+ * once the table is partitioned. The statements are the same as in the V8
+ * migration. Other databases get the plain table from ddl-auto.
+ */
+@Slf4j
+@Component
+public class ArchivePartitionInitializer {
+
+  // language=PostgreSQL
+  public static final String CREATE_PARENT = """
+      CREATE TABLE IF NOT EXISTS ucsbdates_archive (
+          id BIGINT NOT NULL,
+          quarter_yyyyq VARCHAR(255) NOT NULL,
+          name VARCHAR(255),
+          local_date_time TIMESTAMP,
+          PRIMARY KEY (id, quarter_yyyyq)
+      ) PARTITION BY LIST (quarter_yyyyq)
+      """;
+
+  public static final String CREATE_DEFAULT_PARTITION =
+      "CREATE TABLE IF NOT EXISTS ucsbdates_archive_default PARTITION OF ucsbdates_archive DEFAULT";
+
+  public static final String CREATE_INDEX =
+      "CREATE INDEX IF NOT EXISTS ucsbdates_archive_local_date_time_idx ON ucsbdates_archive (local_date_time)";
+
+  // 'r' for a plain table, 'p' for a partitioned one, no row if there is none
+  private static final String RELKIND =
+      "SELECT relkind FROM pg_class WHERE relname = 'ucsbdates_archive' AND relkind IN ('r', 'p')";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ArchivePartitionInitializer(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @PostConstruct
+  public void createPartitionedArchive() {
+    String product = jdbcTemplate.execute(
+        (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+    if (!"PostgreSQL".equals(product)) {
+      return;
+    }
+    List<String> kinds = jdbcTemplate.queryForList(RELKIND, String.class);
+    List<String> statements = statementsFor(kinds.isEmpty() ? null : kinds.get(0));
+    if (statements.isEmpty()) {
+      return;
+    }
+    log.info("Creating ucsbdates_archive partitioned by quarter");
+    new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()))
+        .executeWithoutResult(status -> statements.forEach(jdbcTemplate::execute));
+  }
+
+  /**
+   * What to run for the archive table as found: relkind "p" (already
+   * partitioned), "r" (a plain table left by ddl-auto) or null (none yet).
+   */
+  static List<String> statementsFor(String relkind) {
+    if ("p".equals(relkind)) {
+      return List.of();
+    }
+    List<String> statements = new ArrayList<>();
+    if ("r".equals(relkind)) {
+      // the old key and index give up their names to the new table's
+      statements.add("ALTER TABLE ucsbdates_archive RENAME TO ucsbdates_archive_unpartitioned");
+      statements.add("ALTER TABLE ucsbdates_archive_unpartitioned DROP CONSTRAINT IF EXISTS ucsbdates_archive_pkey");
+      statements.add("DROP INDEX IF EXISTS ucsbdates_archive_local_date_time_idx");
+    }
+    statements.add(CREATE_PARENT);
+    statements.add(CREATE_DEFAULT_PARTITION);
+    statements.add(CREATE_INDEX);
+    if ("r".equals(relkind)) {
+      statements.add("""
+          INSERT INTO ucsbdates_archive (id, quarter_yyyyq, name, local_date_time)
+          SELECT id, quarter_yyyyq, name, local_date_time FROM ucsbdates_archive_unpartitioned
+          """);
+      statements.add("DROP TABLE ucsbdates_archive_unpartitioned");
+    }
+    return statements;
+  }
+
+  /** Holds back the entity manager factory, and so ddl-auto, until this has run. */
+  @Component
+  static class EntityManagerFactoryDependsOnArchive extends EntityManagerFactoryDependsOnPostProcessor {
+    EntityManagerFactoryDependsOnArchive() {
+      super("archivePartitionInitializer");
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package edu.ucsb.cs156.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Moves every entity id sequence past the largest id already in its table.
+ *
+ * The entity tables used identity columns before they switched to pooled
+ * sequences (so that inserts can be batched), which means that on an existing
+ * database the sequences created by ddl-auto start below ids already in use.
+ * This runs once while the context starts, before the web server accepts
+ * requests, and only ever moves a sequence forward.
+ */
+@Slf4j
+@Component
+public class IdSequenceInitializer {
+
+  private final SessionFactoryImplementor sessionFactory;
+  private final JdbcTemplate jdbcTemplate;
+
+  public IdSequenceInitializer(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+    this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @PostConstruct
+  public void advanceSequences() {
+    Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+    for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+      if (persister.getIdentifierGenerator() instanceof SequenceStyleGenerator generator
+          && persister instanceof AbstractEntityPersister entity) {
+        String sequence = generator.getDatabaseStructure().getPhysicalName().render();
+        advance(dialect, sequence, entity.getTableName(), entity.getIdentifierColumnNames()[0]);
+      }
+    }
+  }
+
+  // Reading the next value costs one block of ids per restart, but unlike
+  // reading the current value it is the same statement on every dialect.
+  private void advance(Dialect dialect, String sequence, String table, String idColumn) {
+    long next = jdbcTemplate.queryForObject(dialect.getSequenceNextValString(sequence), Long.class);
+    long maxId = jdbcTemplate.queryForObject(
+        "SELECT COALESCE(MAX(" + idColumn + "), 0) FROM " + table, Long.class);
+    if (maxId >= next) {
+      log.info("Restarting sequence {} at {} to clear existing ids in {}", sequence, maxId + 1, table);
+      jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 1));
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.repositories.DatabaseDialect;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Makes sure the full-text index behind restaurant search exists.
+ *
+ * On Postgres that is the generated search_vector column and its GIN index
+ * from the V12 migration, created here too in case the schema came from
+ * ddl-auto alone. On H2 (development and tests) it is H2's built-in FullText
+ * index over description and details, which H2 keeps current with triggers.
+ * Every statement is a no-op when the index is already there.
+ */
+@Slf4j
+@Component
+public class RestaurantSearchInitializer {
+
+  // language=PostgreSQL
+  public static final String POSTGRES_SEARCH_VECTOR = """
+      ALTER TABLE restaurant ADD COLUMN IF NOT EXISTS search_vector tsvector
+          GENERATED ALWAYS AS (
+              setweight(to_tsvector('english', coalesce(description, '')), 'A')
+              || setweight(to_tsvector('english', coalesce(details, '')), 'B')
+          ) STORED
+      """;
+
+  public static final String POSTGRES_SEARCH_INDEX =
+      "CREATE INDEX IF NOT EXISTS restaurant_search_idx ON restaurant USING GIN (search_vector)";
+
+  private static final String H2_INDEX_EXISTS =
+      "SELECT COUNT(*) FROM FT.INDEXES WHERE \"SCHEMA\" = 'PUBLIC' AND \"TABLE\" = 'RESTAURANT'";
+
+  private final DatabaseDialect dialect;
+  private final JdbcTemplate jdbcTemplate;
+
+  public RestaurantSearchInitializer(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+    this.dialect = DatabaseDialect.of(entityManagerFactory);
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @PostConstruct
+  public void createSearchIndex() {
+    if (dialect == DatabaseDialect.POSTGRES) {
+      jdbcTemplate.execute(POSTGRES_SEARCH_VECTOR);
+      jdbcTemplate.execute(POSTGRES_SEARCH_INDEX);
+    } else if (dialect == DatabaseDialect.H2) {
+      jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS FT_INIT FOR \"org.h2.fulltext.FullText.init\"");
+      jdbcTemplate.execute("CALL FT_INIT()");
+      if (jdbcTemplate.queryForObject(H2_INDEX_EXISTS, Long.class) == 0) {
+        log.info("Creating H2 full-text index on restaurant description and details");
+        jdbcTemplate.execute("CALL FT_CREATE_INDEX('PUBLIC', 'RESTAURANT', 'DESCRIPTION,DETAILS')");
+      }
+    } else {
+      log.warn("No full-text index for restaurant search on this database");
+    }
+  }
+}
@@ -3,6 +3,7 @@ package edu.ucsb.cs156.example.config;
 import java.util.Collections;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.WebRequest;
 
 import springfox.documentation.service.Contact;
 import springfox.documentation.builders.RequestHandlerSelectors;
@@ -28,6 +29,7 @@ public class SpringFoxConfig {
     public Docket api() {
         return new Docket(DocumentationType.SWAGGER_2)
                 .apiInfo(apiInfo())
+                .ignoredParameterTypes(WebRequest.class)
                 .select()
                 .apis(RequestHandlerSelectors.any())
                 .paths(regex("/api/.*|/csrf"))
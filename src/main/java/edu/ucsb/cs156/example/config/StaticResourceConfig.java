@@ -0,0 +1,56 @@
+package edu.ucsb.cs156.example.config;
+
+import java.time.Duration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+/**
+ * Serves the built React frontend that the production build copies into
+ * <code>public/</code> on the classpath.
+ *
+ * The build writes <code>.br</code> and <code>.gz</code> siblings of each
+ * compressible file (frontend/scripts/precompress.js), and the
+ * {@link EncodedResourceResolver} picks one by Accept-Encoding. Everything under
+ * <code>/static/</code> has a content hash in its file name, so it is cached
+ * as immutable for a year; the remaining top-level files keep their names
+ * across deploys and must be revalidated. <code>index.html</code> itself is
+ * served by {@link edu.ucsb.cs156.example.controllers.FrontendController}.
+ */
+@Profile("!development")
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+  private static final String[] LOCATIONS = {
+      "classpath:/public/", "classpath:/static/", "classpath:/META-INF/resources/", "classpath:/resources/"
+  };
+
+  // CacheControl has no immutable() until Spring 6, so append it by hand.
+  private static final CacheControl IMMUTABLE = new CacheControl() {
+    private final String value = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().getHeaderValue() + ", immutable";
+
+    @Override
+    public String getHeaderValue() {
+      return value;
+    }
+  };
+
+  @Override
+  public void addResourceHandlers(ResourceHandlerRegistry registry) {
+    registry.addResourceHandler("/static/**")
+        .addResourceLocations("classpath:/public/static/")
+        .setCacheControl(IMMUTABLE)
+        .resourceChain(true)
+        .addResolver(new EncodedResourceResolver());
+
+    registry.addResourceHandler("/**")
+        .addResourceLocations(LOCATIONS)
+        .setCacheControl(CacheControl.noCache())
+        .resourceChain(true)
+        .addResolver(new EncodedResourceResolver());
+  }
+}
@@ -0,0 +1,58 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.entities.Transport;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills in transport.cost_cents for rows written before the column existed.
+ *
+ * ddl-auto adds the column empty, and the max cost filter and the cheapest
+ * first order leave out every row whose cost_cents is null, so those rows
+ * would silently disappear from cost queries. This parses their cost with
+ * Transport.costCents, the same rule used on every save, once while the
+ * context starts. Rows whose cost has no amount stay null and are simply
+ * looked at again on the next start. It does the work of the UPDATE in the
+ * V9 migration, and takes the entity manager factory so the schema update
+ * has added the column before it runs.
+ */
+@Slf4j
+@Component
+public class TransportCostInitializer {
+
+  public static final String SELECT_MISSING =
+      "SELECT id, cost FROM transport WHERE cost_cents IS NULL AND cost IS NOT NULL";
+
+  // a row saved since the select already has its cents, so it is left alone
+  public static final String UPDATE_CENTS =
+      "UPDATE transport SET cost_cents = ? WHERE id = ? AND cost_cents IS NULL";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public TransportCostInitializer(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @PostConstruct
+  public void backfillCostCents() {
+    List<Object[]> updates = new ArrayList<>();
+    jdbcTemplate.query(SELECT_MISSING, rs -> {
+      Long cents = Transport.costCents(rs.getString("cost"));
+      if (cents != null) {
+        updates.add(new Object[] { cents, rs.getLong("id") });
+      }
+    });
+    if (!updates.isEmpty()) {
+      jdbcTemplate.batchUpdate(UPDATE_CENTS, updates);
+      log.info("Filled in cost_cents for {} transport rows", updates.size());
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.entities.TransportMode;
+import edu.ucsb.cs156.example.services.TransportModeService;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+import java.util.List;
+
+/**
+ * Gives transport rows written before the mode dictionary existed their
+ * mode_id.
+ *
+ * ddl-auto adds mode_id empty, and /bymode looks transports up by mode_id
+ * only. So this adds every mode still held only in the old mode column to
+ * the dictionary and points the rows at it, once while the context starts.
+ * Until a row has its mode_id, Transport falls back to reading the old
+ * column. This does the work of the INSERT and UPDATE in the V10 migration.
+ */
+@Slf4j
+@Component
+public class TransportModeInitializer {
+
+  public static final String SELECT_UNENCODED =
+      "SELECT DISTINCT mode FROM transport WHERE mode_id IS NULL AND mode IS NOT NULL";
+
+  public static final String UPDATE_MODE_ID =
+      "UPDATE transport SET mode_id = ? WHERE mode = ? AND mode_id IS NULL";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransportModeService transportModes;
+
+  public TransportModeInitializer(JdbcTemplate jdbcTemplate, TransportModeService transportModes) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transportModes = transportModes;
+  }
+
+  @PostConstruct
+  public void backfillModeIds() {
+    List<String> names = jdbcTemplate.queryForList(SELECT_UNENCODED, String.class);
+    int rows = 0;
+    for (String name : names) {
+      TransportMode mode = transportModes.encode(name);
+      rows += jdbcTemplate.update(UPDATE_MODE_ID, mode.getId(), name);
+    }
+    if (rows > 0) {
+      log.info("Filled in mode_id for {} transport rows across {} modes", rows, names.size());
+    }
+  }
+}
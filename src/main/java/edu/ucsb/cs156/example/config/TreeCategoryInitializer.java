@@ -0,0 +1,60 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.errors.CategoryHierarchyException;
+import edu.ucsb.cs156.example.repositories.TreeCategoryRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+import java.util.List;
+
+/**
+ * Gives every category string already used by a tree a node in the category
+ * hierarchy.
+ *
+ * A tree belongs to the category whose name is its category string, so
+ * /bycategory and /categories only see trees whose string has a node. Trees
+ * written before the hierarchy existed have none, so this adds each such
+ * string as a top level category, with its closure row, once while the
+ * context starts. An admin can move them under a parent afterwards. It does
+ * the work of the INSERTs in the V11 migration and depends on the category
+ * repository, and so on the entity manager factory, so the tables exist
+ * before it runs.
+ */
+@Slf4j
+@Component
+public class TreeCategoryInitializer {
+
+  public static final String SELECT_UNCATEGORIZED = """
+      SELECT DISTINCT t.category FROM trees t
+      WHERE t.category IS NOT NULL
+        AND NOT EXISTS (SELECT 1 FROM tree_categories c WHERE c.name = t.category)
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TreeCategoryRepository treeCategoryRepository;
+
+  public TreeCategoryInitializer(JdbcTemplate jdbcTemplate, TreeCategoryRepository treeCategoryRepository) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.treeCategoryRepository = treeCategoryRepository;
+  }
+
+  @PostConstruct
+  public void importCategories() {
+    List<String> names = jdbcTemplate.queryForList(SELECT_UNCATEGORIZED, String.class);
+    for (String name : names) {
+      try {
+        treeCategoryRepository.addCategory(name, null);
+      } catch (CategoryHierarchyException e) {
+        // another instance starting at the same time added it first
+        log.info("Tree category {} was added concurrently", name);
+      }
+    }
+    if (!names.isEmpty()) {
+      log.info("Added {} tree categories already used by trees as top level categories", names.size());
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package edu.ucsb.cs156.example.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Creates the indexes behind the quarter and date range listings of
+ * ucsbdates.
+ *
+ * They are declared on UCSBDate too, but ddl-auto does not reliably add an
+ * index to a table that already exists, so this creates them once while
+ * the context starts. Taking the entity manager factory makes sure the
+ * schema update has created the table first. Each statement is a no-op when
+ * the index is already there. The statements are the same as in the V7
+ * migration.
+ */
+@Component
+public class UCSBDateIndexInitializer {
+
+  public static final String QUARTER_INDEX =
+      "CREATE INDEX IF NOT EXISTS ucsbdates_quarter_idx ON ucsbdates (quarter_yyyyq, local_date_time)";
+
+  public static final String LOCAL_DATE_TIME_INDEX =
+      "CREATE INDEX IF NOT EXISTS ucsbdates_local_date_time_idx ON ucsbdates (local_date_time)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public UCSBDateIndexInitializer(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @PostConstruct
+  public void createIndexes() {
+    jdbcTemplate.execute(QUARTER_INDEX);
+    jdbcTemplate.execute(LOCAL_DATE_TIME_INDEX);
+  }
+}
@@ -0,0 +1,91 @@
+package edu.ucsb.cs156.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes sure users.email has the unique index that the login upsert
+ * (INSERT ... ON CONFLICT (email) on Postgres) depends on.
+ *
+ * ddl-auto cannot add the index to a table that already holds duplicate
+ * emails, so each set of duplicates is first merged into its oldest row:
+ * that row keeps its id, becomes admin if any of the duplicates was, and
+ * takes any profile column it is missing from the newest duplicate. The
+ * other rows are then deleted, and every merge is logged with the ids
+ * involved. Nothing references users by id, so no other table changes.
+ * Each set is merged in its own transaction. Taking the entity manager
+ * factory makes sure the schema update has created the table first. Once
+ * the emails are unique and the index exists this is a single query.
+ */
+@Slf4j
+@Component
+public class UserEmailIndexInitializer {
+
+  public static final String SELECT_DUPLICATES = """
+      SELECT id, email FROM users
+      WHERE email IN (SELECT email FROM users WHERE email IS NOT NULL GROUP BY email HAVING COUNT(*) > 1)
+      ORDER BY email, id
+      """;
+
+  public static final String CREATE_UNIQUE_INDEX =
+      "CREATE UNIQUE INDEX IF NOT EXISTS users_email_unique_idx ON users (email)";
+
+  private static final String MERGE_FLAGS = """
+      UPDATE users SET
+          admin = admin OR EXISTS (SELECT 1 FROM users d WHERE d.email = users.email AND d.admin = TRUE),
+          email_verified = email_verified
+              OR EXISTS (SELECT 1 FROM users d WHERE d.email = users.email AND d.email_verified = TRUE)
+      WHERE id = ?
+      """;
+
+  private static final List<String> PROFILE_COLUMNS = List.of(
+      "google_sub", "picture_url", "full_name", "given_name", "family_name", "locale", "hosted_domain");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  public UserEmailIndexInitializer(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+  }
+
+  @PostConstruct
+  public void createUniqueEmailIndex() {
+    Map<String, List<Long>> idsByEmail = new LinkedHashMap<>();
+    jdbcTemplate.query(SELECT_DUPLICATES, rs -> {
+      idsByEmail.computeIfAbsent(rs.getString("email"), e -> new ArrayList<>()).add(rs.getLong("id"));
+    });
+    idsByEmail.forEach(this::merge);
+    jdbcTemplate.execute(CREATE_UNIQUE_INDEX);
+  }
+
+  // ids are in ascending order: the first is kept, the last is the newest
+  private void merge(String email, List<Long> ids) {
+    long kept = ids.get(0);
+    long newest = ids.get(ids.size() - 1);
+    List<Long> merged = ids.subList(1, ids.size());
+    log.warn("Merging users {} into user {}, which share the email {}", merged, kept, email);
+    transactionTemplate.executeWithoutResult(status -> {
+      jdbcTemplate.update(MERGE_FLAGS, kept);
+      for (String column : PROFILE_COLUMNS) {
+        jdbcTemplate.update("UPDATE users SET " + column + " = COALESCE(" + column
+            + ", (SELECT d." + column + " FROM users d WHERE d.id = ?)) WHERE id = ?", newest, kept);
+      }
+      for (long id : merged) {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", id);
+      }
+    });
+  }
+}
@@ -1,23 +1,54 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.errors.BulkLimitExceededException;
+import edu.ucsb.cs156.example.errors.CategoryHierarchyException;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.errors.InvalidParameterException;
 import net.bytebuddy.implementation.bytecode.Throw;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import edu.ucsb.cs156.example.models.CurrentUser;
 import edu.ucsb.cs156.example.services.CurrentUserService;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
 
 @Slf4j
 public abstract class ApiController {
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  // a browser may keep the response but must revalidate it with the ETag
+  // before every use; shared caches must not keep it at all
+  private static final String REVALIDATE = CacheControl.noCache().cachePrivate().getHeaderValue();
+
   @Autowired
   private CurrentUserService currentUserService;
 
+  @Autowired
+  private TableVersionService tableVersionService;
+
+  @Value("${app.pagination.defaultLimit:100}")
+  private int defaultPageLimit;
+
+  @Value("${app.pagination.maxLimit:500}")
+  private int maxPageLimit;
+
+  @Value("${app.bulk.maxSize:1000}")
+  private int maxBulkSize;
+
   protected CurrentUser getCurrentUser() {
     return currentUserService.getCurrentUser();
   }
@@ -26,6 +57,103 @@ public abstract class ApiController {
     return Map.of("message", message);
   }
 
+  /**
+   * Conditional GET against the current version of an entity table.
+   *
+   * Sets the ETag on the response and returns true when the client's
+   * If-None-Match already matches it; the caller should then return null
+   * straight away, which sends a 304 without touching the repository.
+   *
+   * Also sets Cache-Control: no-cache, private, on the 200 and the 304 alike.
+   * Spring Security only adds its no-store default when the response has no
+   * Cache-Control yet, and no-store would stop browsers from ever sending
+   * the ETag back.
+   */
+  protected boolean notModified(WebRequest request, Class<?> table) {
+    if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+      servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+    }
+    return request.checkNotModified(tableVersionService.etag(table));
+  }
+
+  /**
+   * Record a committed create, update or delete so that ETags handed out for
+   * the table stop matching.
+   */
+  protected void tableChanged(Class<?> table) {
+    tableVersionService.bump(table);
+  }
+
+  /**
+   * Clamp a client supplied page size to the server side row cap.
+   */
+  protected int pageLimit(Integer limit) {
+    if (limit == null || limit < 1) {
+      return defaultPageLimit;
+    }
+    return Math.min(limit, maxPageLimit);
+  }
+
+  /**
+   * Build the response for one page of a keyset listing.
+   *
+   * The repository query is expected to have been asked for limit + 1 rows;
+   * if the extra row came back, the key of the last row actually returned is
+   * sent back in the {@value #NEXT_CURSOR_HEADER} header so the client can pass
+   * it as <code>after</code> to fetch the next page.
+   */
+  protected <T> ResponseEntity<Iterable<T>> keysetPage(List<T> rows, int limit, Function<T, Object> keyOf) {
+    if (rows.size() <= limit) {
+      return ResponseEntity.ok(rows);
+    }
+    List<T> page = rows.subList(0, limit);
+    return ResponseEntity.ok()
+        .header(NEXT_CURSOR_HEADER, keyOf.apply(page.get(limit - 1)).toString())
+        .body(page);
+  }
+
+  /**
+   * Prepare the body of a <code>/bulk</code> create for a single saveAll.
+   *
+   * Uploads larger than the configured cap are rejected, and any ids the
+   * client sent are cleared so that every row is inserted with an id from
+   * the entity's sequence rather than merged over an existing row.
+   */
+  protected <T> List<T> bulkRows(List<T> rows, ObjLongConsumer<T> setId) {
+    if (rows.size() > maxBulkSize) {
+      throw new BulkLimitExceededException(rows.size(), maxBulkSize);
+    }
+    rows.forEach(row -> setId.accept(row, 0L));
+    return rows;
+  }
+
+  @ExceptionHandler({ BulkLimitExceededException.class })
+  @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+  public Object handleBulkLimitExceeded(Throwable e) {
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", e.getMessage()
+    );
+  }
+
+  @ExceptionHandler({ CategoryHierarchyException.class })
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Object handleCategoryHierarchy(Throwable e) {
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", e.getMessage()
+    );
+  }
+
+  @ExceptionHandler({ InvalidParameterException.class })
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Object handleInvalidParameter(Throwable e) {
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", e.getMessage()
+    );
+  }
+
   @ExceptionHandler({ EntityNotFoundException.class })
   @ResponseStatus(HttpStatus.NOT_FOUND)
   public Object handleGenericException(Throwable e) {
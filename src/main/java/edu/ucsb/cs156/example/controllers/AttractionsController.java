@@ -11,6 +11,8 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -21,10 +23,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Api(description = "Attractions")
 @RequestMapping("/api/attractions")
@@ -38,16 +42,32 @@ public class AttractionsController extends ApiController {
     @ApiOperation(value = "List all attractions")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Attractions> allAttractions() {
-        Iterable<Attractions> dates = attractionsRepository.findAll();
-        return dates;
+    public ResponseEntity<Iterable<Attractions>> allAttractions(
+            WebRequest request,
+            @ApiParam("return only attractions whose id is greater than this cursor") @RequestParam(required = false) Long after,
+            @ApiParam("maximum number of attractions to return (capped by the server)") @RequestParam(required = false) Integer limit) {
+        if (notModified(request, Attractions.class)) {
+            return null;
+        }
+        if (after == null && limit == null) {
+            Iterable<Attractions> attractions = attractionsRepository.findAll();
+            return ResponseEntity.ok(attractions);
+        }
+        int pageLimit = pageLimit(limit);
+        List<Attractions> attractions = attractionsRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, PageRequest.of(0, pageLimit + 1));
+        return keysetPage(attractions, pageLimit, Attractions::getId);
     }
 
     @ApiOperation(value = "Get a single attraction")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public Attractions getById(
+            WebRequest request,
             @ApiParam("id") @RequestParam Long id) {
+        if (notModified(request, Attractions.class)) {
+            return null;
+        }
         Attractions attractions = attractionsRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Attractions.class, id));
 
@@ -74,10 +94,21 @@ public class AttractionsController extends ApiController {
         attractions.setDescription(description);
 
         Attractions savedAttractions = attractionsRepository.save(attractions);
+        tableChanged(Attractions.class);
 
         return savedAttractions;
     }
 
+    @ApiOperation(value = "Create many attractions in one request")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public Iterable<Attractions> postAttractionsBulk(
+            @ApiParam("attractions to create; any ids supplied are ignored") @RequestBody List<Attractions> attractions) {
+        Iterable<Attractions> saved = attractionsRepository.saveAll(bulkRows(attractions, Attractions::setId));
+        tableChanged(Attractions.class);
+        return saved;
+    }
+
     @ApiOperation(value = "Delete an Attraction")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping("")
@@ -87,6 +118,7 @@ public class AttractionsController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Attractions.class, id));
 
         attractionsRepository.delete(attractions);
+        tableChanged(Attractions.class);
         return genericMessage("Attractions with id %s deleted".formatted(id));
     }
 
@@ -105,6 +137,7 @@ public class AttractionsController extends ApiController {
         attractions.setDescription(incoming.getDescription());
 
         attractionsRepository.save(attractions);
+        tableChanged(Attractions.class);
 
         return attractions;
     }
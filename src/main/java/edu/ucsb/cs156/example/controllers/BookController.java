@@ -2,13 +2,19 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Book;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.errors.InvalidParameterException;
 import edu.ucsb.cs156.example.repositories.BookRepository;
+import edu.ucsb.cs156.example.models.WordcountStatistics;
+import edu.ucsb.cs156.example.services.BookSearchService;
+import edu.ucsb.cs156.example.services.BookStatisticsService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,11 +24,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import javax.validation.Valid;
 
+import java.util.List;
+
 
 @Api(description = "Books")
 @RequestMapping("/api/books")
@@ -33,25 +42,71 @@ public class BookController extends ApiController {
     @Autowired
     BookRepository bookRepository;
 
+    @Autowired
+    BookSearchService bookSearch;
+
+    @Autowired
+    BookStatisticsService bookStatistics;
+
     @ApiOperation(value = "List all books")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Book> allBooks() {
-        Iterable<Book> books = bookRepository.findAll();
-        return books;
+    public ResponseEntity<Iterable<Book>> allBooks(
+            WebRequest request,
+            @ApiParam("return only books whose id is greater than this cursor") @RequestParam(required = false) Long after,
+            @ApiParam("maximum number of books to return (capped by the server)") @RequestParam(required = false) Integer limit) {
+        if (notModified(request, Book.class)) {
+            return null;
+        }
+        if (after == null && limit == null) {
+            Iterable<Book> books = bookRepository.findAll();
+            return ResponseEntity.ok(books);
+        }
+        int pageLimit = pageLimit(limit);
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, PageRequest.of(0, pageLimit + 1));
+        return keysetPage(books, pageLimit, Book::getId);
     }
 
     @ApiOperation(value = "Get a single book")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public Book getById(
+            WebRequest request,
             @ApiParam("id") @RequestParam Long id) {
+        if (notModified(request, Book.class)) {
+            return null;
+        }
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Book.class, id));
 
         return book;
     }
 
+    @ApiOperation(value = "Search books by name, author and genre; every word must match the start of a word in one of them")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/search")
+    public List<Book> searchBooks(
+            WebRequest request,
+            @ApiParam("search words") @RequestParam String q,
+            @ApiParam("maximum number of books to return (capped by the server)") @RequestParam(required = false) Integer limit) {
+        if (notModified(request, Book.class)) {
+            return null;
+        }
+        return bookSearch.search(q, pageLimit(limit));
+    }
+
+    @ApiOperation(value = "Word count distribution per genre (or for one genre)")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/stats")
+    public List<WordcountStatistics> wordcountStatistics(
+            @ApiParam("only this genre") @RequestParam(required = false) String genre) {
+        if (genre != null) {
+            return List.of(bookStatistics.getStatistics(genre));
+        }
+        return bookStatistics.getStatistics();
+    }
+
     @ApiOperation(value = "Create a new book")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/post")
@@ -63,6 +118,7 @@ public class BookController extends ApiController {
         )
         throws JsonProcessingException
         {
+        requireWordcount(wordcount);
 
         Book book = new Book();
         book.setName(name);
@@ -71,10 +127,26 @@ public class BookController extends ApiController {
         book.setWordcount(wordcount);
 
         Book savedBook = bookRepository.save(book);
+        tableChanged(Book.class);
+        bookSearch.put(savedBook);
+        bookStatistics.added(savedBook);
 
         return savedBook;
     }
 
+    @ApiOperation(value = "Create many books in one request")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public Iterable<Book> postBooksBulk(
+            @ApiParam("books to create; any ids supplied are ignored") @RequestBody List<Book> books) {
+        books.forEach(book -> requireWordcount(book.getWordcount()));
+        Iterable<Book> saved = bookRepository.saveAll(bulkRows(books, Book::setId));
+        tableChanged(Book.class);
+        bookSearch.putAll(saved);
+        bookStatistics.addedAll(saved);
+        return saved;
+    }
+
     @ApiOperation(value = "Delete a Book")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping("")
@@ -84,6 +156,9 @@ public class BookController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Book.class, id));
 
         bookRepository.delete(book);
+        tableChanged(Book.class);
+        bookSearch.remove(id);
+        bookStatistics.changed(book.getGenre(), null);
         return genericMessage("Book with id %s deleted".formatted(id));
     }
 
@@ -93,17 +168,28 @@ public class BookController extends ApiController {
     public Book updateBook(
             @ApiParam("id") @RequestParam Long id,
             @RequestBody @Valid Book incoming) {
+        requireWordcount(incoming.getWordcount());
 
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Book.class, id));
 
+        String genreBefore = book.getGenre();
         book.setName(incoming.getName());
         book.setAuthor(incoming.getAuthor());
         book.setGenre(incoming.getGenre());
         book.setWordcount(incoming.getWordcount());
 
         bookRepository.save(book);
+        tableChanged(Book.class);
+        bookSearch.put(book);
+        bookStatistics.changed(genreBefore, book.getGenre());
 
         return book;
     }
+
+    private static void requireWordcount(long wordcount) {
+        if (wordcount < 0) {
+            throw new InvalidParameterException("wordcount", wordcount, "must not be negative");
+        }
+    }
 }
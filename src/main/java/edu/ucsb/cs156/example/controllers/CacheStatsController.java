@@ -0,0 +1,39 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.CacheStatistics;
+import edu.ucsb.cs156.example.services.SecondLevelCacheService;
+import edu.ucsb.cs156.example.services.UserCacheService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Api(description = "Cache statistics (admin only)")
+@RequestMapping("/api/admin/caches")
+@RestController
+public class CacheStatsController extends ApiController {
+
+    @Autowired
+    UserCacheService userCacheService;
+
+    @Autowired
+    SecondLevelCacheService secondLevelCacheService;
+
+    @ApiOperation(value = "Get hit/miss statistics for the application caches")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public List<CacheStatistics> getCacheStatistics() {
+        List<CacheStatistics> caches = new ArrayList<>();
+        caches.add(userCacheService.getStatistics());
+        caches.addAll(secondLevelCacheService.getStatistics());
+        return caches;
+    }
+
+}
@@ -1,16 +1,76 @@
 package edu.ucsb.cs156.example.controllers;
 
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the single page app's <code>index.html</code> for every client-side
+ * route.
+ *
+ * The page and its precompressed variants are read into memory once, so a
+ * route is answered straight from a byte array rather than by forwarding
+ * through the dispatcher to the static resource handler. The page names the
+ * current content-hashed bundles, so it is always revalidated (by ETag).
+ * Each encoding of the page has its own ETag.
+ */
 @Profile("!development")
 @Controller
 public class FrontendController {
-  @GetMapping("/**/{path:[^\\.]*}")
-  public String index() {
-    return "forward:/index.html";
+
+  private static final String INDEX = "classpath:/public/index.html";
+
+  private final Variant identity;
+  private final Variant gzip;
+  private final Variant brotli;
+
+  public FrontendController(ResourceLoader resourceLoader) {
+    byte[] index = read(resourceLoader.getResource(INDEX));
+    String hash = index == null ? null : DigestUtils.md5DigestAsHex(index);
+    this.identity = Variant.of(index, null, hash, "");
+    this.gzip = Variant.of(read(resourceLoader.getResource(INDEX + ".gz")), "gzip", hash, "-gz");
+    this.brotli = Variant.of(read(resourceLoader.getResource(INDEX + ".br")), "br", hash, "-br");
+  }
+
+  @GetMapping({"/", "/**/{path:[^\\.]*}"})
+  public ResponseEntity<byte[]> index(
+      WebRequest request,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    if (identity == null) {
+      return ResponseEntity.notFound().build();
+    }
+    Variant variant = choose(acceptEncoding);
+    // each encoding has its own ETag, so a cached gzip body is never
+    // confirmed for a client that asked for brotli or no encoding at all
+    if (request.checkNotModified(variant.etag())) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .cacheControl(CacheControl.noCache())
+          .varyBy(HttpHeaders.ACCEPT_ENCODING)
+          .build();
+    }
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+        .cacheControl(CacheControl.noCache())
+        .varyBy(HttpHeaders.ACCEPT_ENCODING);
+    if (variant.encoding() != null) {
+      response.header(HttpHeaders.CONTENT_ENCODING, variant.encoding());
+    }
+    return response.body(variant.body());
   }
 
   @GetMapping("/csrf")
@@ -18,4 +78,46 @@ public class FrontendController {
     return ResponseEntity.notFound().build();
   }
 
+  private Variant choose(String acceptEncoding) {
+    if (brotli != null && accepts(acceptEncoding, "br")) {
+      return brotli;
+    }
+    if (gzip != null && accepts(acceptEncoding, "gzip")) {
+      return gzip;
+    }
+    return identity;
+  }
+
+  static boolean accepts(String acceptEncoding, String coding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String part : acceptEncoding.split(",")) {
+      String[] params = part.trim().split(";");
+      if (params[0].trim().equalsIgnoreCase(coding)) {
+        return params.length == 1 || !params[1].replace(" ", "").matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  private record Variant(byte[] body, String encoding, String etag) {
+    static Variant of(byte[] body, String encoding, String hash, String etagSuffix) {
+      if (body == null || hash == null) {
+        return null;
+      }
+      return new Variant(body, encoding, "\"" + hash + etagSuffix + "\"");
+    }
+  }
+
+  private static byte[] read(Resource resource) {
+    if (!resource.exists()) {
+      return null;
+    }
+    try (InputStream in = resource.getInputStream()) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 }
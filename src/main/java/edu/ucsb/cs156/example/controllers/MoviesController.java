@@ -2,7 +2,10 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Movie;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.GenreYearCount;
 import edu.ucsb.cs156.example.repositories.MovieRepository;
+import edu.ucsb.cs156.example.services.MovieAutocompleteService;
+import edu.ucsb.cs156.example.services.MovieHistogramService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -11,6 +14,8 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 // import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -21,9 +26,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
+import java.util.List;
+
 @Api(description = "Movies")
 @RequestMapping("/api/movies")
 @RestController
@@ -33,25 +41,67 @@ public class MoviesController extends ApiController {
     @Autowired
     MovieRepository movieRepository;
 
+    @Autowired
+    MovieHistogramService movieHistogram;
+
+    @Autowired
+    MovieAutocompleteService movieAutocomplete;
+
     @ApiOperation(value = "List all movies")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Movie> allMovies() {
-        Iterable<Movie> names = movieRepository.findAll();
-        return names;
+    public ResponseEntity<Iterable<Movie>> allMovies(
+            WebRequest request,
+            @ApiParam("return only movies whose id is greater than this cursor") @RequestParam(required = false) Long after,
+            @ApiParam("maximum number of movies to return (capped by the server)") @RequestParam(required = false) Integer limit) {
+        if (notModified(request, Movie.class)) {
+            return null;
+        }
+        if (after == null && limit == null) {
+            Iterable<Movie> movies = movieRepository.findAll();
+            return ResponseEntity.ok(movies);
+        }
+        int pageLimit = pageLimit(limit);
+        List<Movie> movies = movieRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, PageRequest.of(0, pageLimit + 1));
+        return keysetPage(movies, pageLimit, Movie::getId);
     }
 
     @ApiOperation(value = "Get a single movie")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public Movie getById(
+            WebRequest request,
             @ApiParam("id") @RequestParam Long id) {
+        if (notModified(request, Movie.class)) {
+            return null;
+        }
         Movie movie = movieRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Movie.class, id));
 
         return movie;
     }
 
+    @ApiOperation(value = "Movies whose name starts with a prefix, in name order")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/autocomplete")
+    public List<Movie> autocomplete(
+            WebRequest request,
+            @ApiParam("start of the movie name; case, accents and punctuation are ignored") @RequestParam String prefix,
+            @ApiParam("maximum number of movies to return (capped by the server)") @RequestParam(defaultValue = "10") int limit) {
+        if (notModified(request, Movie.class)) {
+            return null;
+        }
+        return movieAutocomplete.complete(prefix, limit);
+    }
+
+    @ApiOperation(value = "Number of movies per genre per year")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/histogram")
+    public List<GenreYearCount> histogram() {
+        return movieHistogram.getHistogram();
+    }
+
     @ApiOperation(value = "Create a new date")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/post")
@@ -69,10 +119,25 @@ public class MoviesController extends ApiController {
         movie.setYear(year);
 
         Movie savedmovie = movieRepository.save(movie);
+        tableChanged(Movie.class);
+        movieHistogram.added(savedmovie);
+        movieAutocomplete.put(savedmovie);
 
         return savedmovie;
     }
 
+    @ApiOperation(value = "Create many movies in one request")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public Iterable<Movie> postMoviesBulk(
+            @ApiParam("movies to create; any ids supplied are ignored") @RequestBody List<Movie> movies) {
+        Iterable<Movie> saved = movieRepository.saveAll(bulkRows(movies, Movie::setId));
+        tableChanged(Movie.class);
+        movieHistogram.addedAll(saved);
+        movieAutocomplete.putAll(saved);
+        return saved;
+    }
+
     @ApiOperation(value = "Delete a movie")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping("")
@@ -82,6 +147,9 @@ public class MoviesController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Movie.class, id));
 
         movieRepository.delete(movie);
+        tableChanged(Movie.class);
+        movieHistogram.removed(movie);
+        movieAutocomplete.remove(id);
         return genericMessage("Movie with id %s deleted".formatted(id));
     }
 
@@ -95,11 +163,16 @@ public class MoviesController extends ApiController {
         Movie movie = movieRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Movie.class, id));
 
+        String genreBefore = movie.getGenre();
+        int yearBefore = movie.getYear();
         movie.setName(incoming.getName());
         movie.setGenre(incoming.getGenre());
         movie.setYear(incoming.getYear());
 
         movieRepository.save(movie);
+        tableChanged(Movie.class);
+        movieHistogram.changed(genreBefore, yearBefore, movie);
+        movieAutocomplete.put(movie);
 
         return movie;
     }
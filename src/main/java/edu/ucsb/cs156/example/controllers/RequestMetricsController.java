@@ -0,0 +1,31 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.HandlerLatencyStatistics;
+import edu.ucsb.cs156.example.services.RequestMetricsService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Api(description = "Request latency metrics (admin only)")
+@RequestMapping("/api/admin/metrics")
+@RestController
+public class RequestMetricsController extends ApiController {
+
+    @Autowired
+    RequestMetricsService requestMetricsService;
+
+    @ApiOperation(value = "Get latency percentiles, in-flight counts and error rates per controller handler")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/handlers")
+    public List<HandlerLatencyStatistics> getHandlerStatistics() {
+        return requestMetricsService.getStatistics();
+    }
+
+}
@@ -11,6 +11,8 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -21,10 +23,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Api(description = "Restaurant")
 @RequestMapping("/api/restaurant")
@@ -38,16 +42,52 @@ public class RestaurantController extends ApiController {
     @ApiOperation(value = "List all restaurants")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Restaurant> allRestaurants() {
-        Iterable<Restaurant> restaurants = restaurantsRepository.findAll();
-        return restaurants;
+    public ResponseEntity<Iterable<Restaurant>> allRestaurants(
+            WebRequest request,
+            @ApiParam("return only restaurants whose id is greater than this cursor") @RequestParam(required = false) Long after,
+            @ApiParam("maximum number of restaurants to return (capped by the server)") @RequestParam(required = false) Integer limit) {
+        if (notModified(request, Restaurant.class)) {
+            return null;
+        }
+        if (after == null && limit == null) {
+            Iterable<Restaurant> restaurants = restaurantsRepository.findAll();
+            return ResponseEntity.ok(restaurants);
+        }
+        int pageLimit = pageLimit(limit);
+        List<Restaurant> restaurants = restaurantsRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, PageRequest.of(0, pageLimit + 1));
+        return keysetPage(restaurants, pageLimit, Restaurant::getId);
+    }
+
+    @ApiOperation(value = "Full-text search of restaurant descriptions and details, best match first")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/search")
+    public ResponseEntity<Iterable<Restaurant>> searchRestaurants(
+            WebRequest request,
+            @ApiParam("search words; a restaurant must match all of them") @RequestParam String q,
+            @ApiParam("page of results to return, from 0; the next one is sent in the X-Next-Cursor header") @RequestParam(defaultValue = "0") int page,
+            @ApiParam("maximum number of restaurants to return (capped by the server)") @RequestParam(required = false) Integer limit) {
+        if (notModified(request, Restaurant.class)) {
+            return null;
+        }
+        if (q.isBlank() || page < 0) {
+            return ResponseEntity.ok(List.of());
+        }
+        int pageLimit = pageLimit(limit);
+        List<Restaurant> restaurants = restaurantsRepository.search(
+                q, (long) page * pageLimit, pageLimit + 1);
+        return keysetPage(restaurants, pageLimit, restaurant -> page + 1);
     }
 
     @ApiOperation(value = "Get a single restaurant")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public Restaurant getById(
+            WebRequest request,
             @ApiParam("id") @RequestParam Long id) {
+        if (notModified(request, Restaurant.class)) {
+            return null;
+        }
         Restaurant restaurant = restaurantsRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
 
@@ -74,10 +114,21 @@ public class RestaurantController extends ApiController {
         restaurants.setDescription(description);
 
         Restaurant savedRestaurant = restaurantsRepository.save(restaurants);
+        tableChanged(Restaurant.class);
 
         return savedRestaurant;
     }
 
+    @ApiOperation(value = "Create many restaurants in one request")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public Iterable<Restaurant> postRestaurantsBulk(
+            @ApiParam("restaurants to create; any ids supplied are ignored") @RequestBody List<Restaurant> restaurants) {
+        Iterable<Restaurant> saved = restaurantsRepository.saveAll(bulkRows(restaurants, Restaurant::setId));
+        tableChanged(Restaurant.class);
+        return saved;
+    }
+
     @ApiOperation(value = "Delete a restaurant")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping("")
@@ -87,6 +138,7 @@ public class RestaurantController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
 
         restaurantsRepository.delete(restaurant);
+        tableChanged(Restaurant.class);
         return genericMessage("Restaurant with id %s deleted".formatted(id));
     }
 
@@ -105,6 +157,7 @@ public class RestaurantController extends ApiController {
         restaurant.setDescription(incoming.getDescription());
 
         restaurantsRepository.save(restaurant);
+        tableChanged(Restaurant.class);
 
         return restaurant;
     }
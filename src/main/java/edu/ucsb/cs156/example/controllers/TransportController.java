@@ -1,14 +1,19 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Transport;
+import edu.ucsb.cs156.example.entities.TransportMode;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.errors.InvalidParameterException;
 import edu.ucsb.cs156.example.repositories.TransportRepository;
+import edu.ucsb.cs156.example.services.TransportModeService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,9 +23,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
 
 @Api(description = "Transport")
 @RequestMapping("/api/transport")
@@ -31,19 +41,92 @@ public class TransportController extends ApiController {
     @Autowired
     TransportRepository transportRepository;
 
+    @Autowired
+    TransportModeService transportModes;
+
     @ApiOperation(value = "List all transport")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Transport> allTransports() {
-        Iterable<Transport> transport = transportRepository.findAll();
-        return transport;
+    public ResponseEntity<Iterable<Transport>> allTransports(
+            WebRequest request,
+            @ApiParam("return only transports after the one with this id, in the requested order") @RequestParam(required = false) Long after,
+            @ApiParam("maximum number of transports to return (capped by the server)") @RequestParam(required = false) Integer limit,
+            @ApiParam("return only transports costing at most this much, in dollars") @RequestParam(required = false) BigDecimal maxCost,
+            @ApiParam(value = "order by id or by cost, cheapest first", allowableValues = "id,cost") @RequestParam(defaultValue = "id") String sort) {
+        if (!"id".equals(sort) && !"cost".equals(sort)) {
+            throw new InvalidParameterException("sort", sort, "must be id or cost");
+        }
+        if (notModified(request, Transport.class)) {
+            return null;
+        }
+        boolean byCost = "cost".equals(sort);
+        if (after == null && limit == null && maxCost == null && !byCost) {
+            Iterable<Transport> transports = transportRepository.findAll();
+            return ResponseEntity.ok(transports);
+        }
+        int pageLimit = pageLimit(limit);
+        PageRequest page = PageRequest.of(0, pageLimit + 1);
+        // transports whose cost has no amount are left out of cost queries
+        long maxCents = maxCost == null ? Long.MAX_VALUE : maxCents(maxCost);
+        List<Transport> transports;
+        if (byCost && after == null) {
+            transports = transportRepository.findByCostCentsLessThanEqualOrderByCostCentsAscIdAsc(maxCents, page);
+        } else if (byCost) {
+            Transport last = transportRepository.findById(after)
+                    .orElseThrow(() -> new EntityNotFoundException(Transport.class, after));
+            long lastCents = last.getCostCents() == null ? Long.MAX_VALUE : last.getCostCents();
+            transports = transportRepository.findByCostAfter(maxCents, lastCents, after, page);
+        } else if (maxCost != null) {
+            transports = transportRepository.findByCostCentsLessThanEqualAndIdGreaterThanOrderByIdAsc(
+                    maxCents, after == null ? 0L : after, page);
+        } else {
+            transports = transportRepository.findByIdGreaterThanOrderByIdAsc(
+                    after == null ? 0L : after, page);
+        }
+        return keysetPage(transports, pageLimit, Transport::getId);
+    }
+
+    private static long maxCents(BigDecimal maxCost) {
+        if (maxCost.signum() < 0) {
+            throw new InvalidParameterException("maxCost", maxCost, "must not be negative");
+        }
+        try {
+            return Transport.toCents(maxCost);
+        } catch (ArithmeticException e) {
+            throw new InvalidParameterException("maxCost", maxCost, "must fit in a long number of cents");
+        }
+    }
+
+    @ApiOperation(value = "List the transports of one mode")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/bymode")
+    public ResponseEntity<Iterable<Transport>> transportsByMode(
+            WebRequest request,
+            @ApiParam("mode, e.g. bus") @RequestParam String mode,
+            @ApiParam("return only transports whose id is greater than this cursor") @RequestParam(required = false) Long after,
+            @ApiParam("maximum number of transports to return (capped by the server)") @RequestParam(required = false) Integer limit) {
+        if (notModified(request, Transport.class)) {
+            return null;
+        }
+        Optional<TransportMode> encoded = transportModes.find(mode);
+        if (encoded.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        int pageLimit = pageLimit(limit);
+        List<Transport> transports = transportRepository.findByModeRefAndIdGreaterThanOrderByIdAsc(
+                encoded.get(), after == null ? 0L : after, PageRequest.of(0, pageLimit + 1));
+        return keysetPage(transports, pageLimit, Transport::getId);
     }
 
     @ApiOperation(value = "Get a single transport")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public Transport getById(
+            WebRequest request,
             @ApiParam("id") @RequestParam Long id) {
+        if (notModified(request, Transport.class)) {
+            return null;
+        }
         Transport transport = transportRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Transport.class, id));
 
@@ -63,13 +146,27 @@ public class TransportController extends ApiController {
         Transport transport = new Transport();
         transport.setName(name);
         transport.setMode(mode);
+        transport.setModeRef(transportModes.encode(mode));
         transport.setCost(cost);
 
         Transport savedTransport = transportRepository.save(transport);
+        tableChanged(Transport.class);
 
         return savedTransport;
     }
 
+    @ApiOperation(value = "Create many transports in one request")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public Iterable<Transport> postTransportsBulk(
+            @ApiParam("transports to create; any ids supplied are ignored") @RequestBody List<Transport> transports) {
+        List<Transport> rows = bulkRows(transports, Transport::setId);
+        rows.forEach(transport -> transport.setModeRef(transportModes.encode(transport.getMode())));
+        Iterable<Transport> saved = transportRepository.saveAll(rows);
+        tableChanged(Transport.class);
+        return saved;
+    }
+
     @ApiOperation(value = "Delete a Transport")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping("")
@@ -79,6 +176,7 @@ public class TransportController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Transport.class, id));
 
         transportRepository.delete(transport);
+        tableChanged(Transport.class);
         return genericMessage("Transport with id %s deleted".formatted(id));
     }
 
@@ -95,9 +193,11 @@ public class TransportController extends ApiController {
 
         transport.setName(incoming.getName());  
         transport.setMode(incoming.getMode());
+        transport.setModeRef(transportModes.encode(incoming.getMode()));
         transport.setCost(incoming.getCost());
 
         transportRepository.save(transport);
+        tableChanged(Transport.class);
 
         return transport;
     }
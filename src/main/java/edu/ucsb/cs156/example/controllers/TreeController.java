@@ -1,8 +1,13 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Tree;
+import edu.ucsb.cs156.example.entities.TreeCategory;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.CategoryCount;
+import edu.ucsb.cs156.example.models.TreeCategoryFacet;
+import edu.ucsb.cs156.example.repositories.TreeCategoryRepository;
 import edu.ucsb.cs156.example.repositories.TreeRepository;
+import edu.ucsb.cs156.example.services.TreeFacetService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -11,6 +16,8 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -21,10 +28,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Api(description = "Trees")
 @RequestMapping("/api/tree")
@@ -35,25 +44,54 @@ public class TreeController extends ApiController {
     @Autowired
     TreeRepository treeRepository;
 
+    @Autowired
+    TreeCategoryRepository treeCategoryRepository;
+
+    @Autowired
+    TreeFacetService treeFacets;
+
     @ApiOperation(value = "List all trees")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Tree> allTrees() {
-        Iterable<Tree> trees = treeRepository.findAll();
-        return trees;
+    public ResponseEntity<Iterable<Tree>> allTrees(
+            WebRequest request,
+            @ApiParam("return only trees whose id is greater than this cursor") @RequestParam(required = false) Long after,
+            @ApiParam("maximum number of trees to return (capped by the server)") @RequestParam(required = false) Integer limit) {
+        if (notModified(request, Tree.class)) {
+            return null;
+        }
+        if (after == null && limit == null) {
+            Iterable<Tree> trees = treeRepository.findAll();
+            return ResponseEntity.ok(trees);
+        }
+        int pageLimit = pageLimit(limit);
+        List<Tree> trees = treeRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, PageRequest.of(0, pageLimit + 1));
+        return keysetPage(trees, pageLimit, Tree::getId);
     }
 
     @ApiOperation(value = "Get a single tree")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public Tree getById(
+            WebRequest request,
             @ApiParam("id") @RequestParam Long id) {
+        if (notModified(request, Tree.class)) {
+            return null;
+        }
         Tree tree = treeRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Tree.class, id));
 
         return tree;
     }
 
+    @ApiOperation(value = "Number of trees in each category")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/facets")
+    public List<CategoryCount> treeFacets() {
+        return treeFacets.getFacets();
+    }
+
     @ApiOperation(value = "Create a new tree")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/post")
@@ -69,10 +107,23 @@ public class TreeController extends ApiController {
         tree.setName(name);
 
         Tree savedTree = treeRepository.save(tree);
+        tableChanged(Tree.class);
+        treeFacets.added(savedTree);
 
         return savedTree;
     }
 
+    @ApiOperation(value = "Create many trees in one request")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public Iterable<Tree> postTreesBulk(
+            @ApiParam("trees to create; any ids supplied are ignored") @RequestBody List<Tree> trees) {
+        Iterable<Tree> saved = treeRepository.saveAll(bulkRows(trees, Tree::setId));
+        tableChanged(Tree.class);
+        treeFacets.addedAll(saved);
+        return saved;
+    }
+
     @ApiOperation(value = "Delete a Tree")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping("")
@@ -82,6 +133,8 @@ public class TreeController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Tree.class, id));
 
         treeRepository.delete(tree);
+        tableChanged(Tree.class);
+        treeFacets.removed(tree);
         return genericMessage("Tree with id %s deleted".formatted(id));
     }
 
@@ -95,11 +148,78 @@ public class TreeController extends ApiController {
         Tree tree = treeRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Tree.class, id));
 
+        String categoryBefore = tree.getCategory();
         tree.setCategory(incoming.getCategory());
         tree.setName(incoming.getName());
 
         treeRepository.save(tree);
+        tableChanged(Tree.class);
+        treeFacets.changed(categoryBefore, tree);
 
         return tree;
     }
+
+    @ApiOperation(value = "List the trees in a category or any category below it")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/bycategory")
+    public ResponseEntity<Iterable<Tree>> treesInCategory(
+            @ApiParam("id of the category") @RequestParam Long categoryId,
+            @ApiParam("return only trees whose id is greater than this cursor") @RequestParam(required = false) Long after,
+            @ApiParam("maximum number of trees to return (capped by the server)") @RequestParam(required = false) Integer limit) {
+        if (!treeCategoryRepository.existsById(categoryId)) {
+            throw new EntityNotFoundException(TreeCategory.class, categoryId);
+        }
+        int pageLimit = pageLimit(limit);
+        List<Tree> trees = treeRepository.findInCategorySubtree(
+                categoryId, after == null ? 0L : after, PageRequest.of(0, pageLimit + 1));
+        return keysetPage(trees, pageLimit, Tree::getId);
+    }
+
+    @ApiOperation(value = "List the tree categories with the number of trees under each")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/categories")
+    public List<TreeCategoryFacet> treeCategories() {
+        return treeFacets.getCategoryFacets(treeCategoryRepository.findAll());
+    }
+
+    @ApiOperation(value = "Create a new tree category")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/categories/post")
+    public TreeCategory postTreeCategory(
+            @ApiParam("name; trees with this category string belong to it") @RequestParam String name,
+            @ApiParam("id of the parent category; leave out for a top level category") @RequestParam(required = false) Long parentId) {
+        requireCategory(parentId);
+        return treeCategoryRepository.addCategory(name, parentId);
+    }
+
+    @ApiOperation(value = "Move a tree category, with everything under it, to a new parent")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("/categories/move")
+    public TreeCategory moveTreeCategory(
+            @ApiParam("id of the category to move") @RequestParam Long id,
+            @ApiParam("id of the new parent category; leave out to make it top level") @RequestParam(required = false) Long parentId) {
+        TreeCategory category = requireCategory(id);
+        requireCategory(parentId);
+        treeCategoryRepository.moveCategory(id, parentId);
+        category.setParentId(parentId);
+        return category;
+    }
+
+    @ApiOperation(value = "Delete a tree category that has no categories under it")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/categories")
+    public Object deleteTreeCategory(
+            @ApiParam("id") @RequestParam Long id) {
+        requireCategory(id);
+        treeCategoryRepository.removeCategory(id);
+        return genericMessage("TreeCategory with id %s deleted".formatted(id));
+    }
+
+    private TreeCategory requireCategory(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return treeCategoryRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(TreeCategory.class, id));
+    }
 }
@@ -1,8 +1,12 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.entities.ArchivedUCSBDate;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.errors.InvalidParameterException;
+import edu.ucsb.cs156.example.repositories.ArchivedUCSBDateRepository;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.services.UpcomingDatesService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -11,6 +15,8 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -21,10 +27,16 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Api(description = "UCSBDates")
 @RequestMapping("/api/ucsbdates")
@@ -35,25 +47,130 @@ public class UCSBDatesController extends ApiController {
     @Autowired
     UCSBDateRepository ucsbDateRepository;
 
+    @Autowired
+    ArchivedUCSBDateRepository archivedUCSBDateRepository;
+
+    @Autowired
+    UpcomingDatesService upcomingDates;
+
     @ApiOperation(value = "List all ucsb dates")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDate> allUCSBDates() {
-        Iterable<UCSBDate> dates = ucsbDateRepository.findAll();
-        return dates;
+    public ResponseEntity<Iterable<UCSBDate>> allUCSBDates(
+            WebRequest request,
+            @ApiParam("return only dates whose id is greater than this cursor") @RequestParam(required = false) Long after,
+            @ApiParam("maximum number of dates to return (capped by the server)") @RequestParam(required = false) Integer limit,
+            @ApiParam("also return dates from archived quarters") @RequestParam(defaultValue = "false") boolean includeArchived) {
+        if (notModified(request, UCSBDate.class)) {
+            return null;
+        }
+        if (after == null && limit == null) {
+            Iterable<UCSBDate> dates = ucsbDateRepository.findAll();
+            if (!includeArchived) {
+                return ResponseEntity.ok(dates);
+            }
+            List<UCSBDate> withArchived = new ArrayList<>();
+            dates.forEach(withArchived::add);
+            archivedUCSBDateRepository.findAll().forEach(archived -> withArchived.add(archived.toUCSBDate()));
+            return ResponseEntity.ok(withArchived);
+        }
+        int pageLimit = pageLimit(limit);
+        long cursor = after == null ? 0L : after;
+        List<UCSBDate> dates = ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(
+                cursor, PageRequest.of(0, pageLimit + 1));
+        if (includeArchived) {
+            // archived rows keep their ids, so the next page of the union is
+            // the first pageLimit + 1 ids of the next page of each table
+            List<UCSBDate> archived = archivedUCSBDateRepository.findByIdGreaterThanOrderByIdAsc(
+                    cursor, PageRequest.of(0, pageLimit + 1)).stream()
+                    .map(ArchivedUCSBDate::toUCSBDate)
+                    .collect(Collectors.toList());
+            dates = Stream.concat(dates.stream(), archived.stream())
+                    .sorted(Comparator.comparingLong(UCSBDate::getId))
+                    .limit(pageLimit + 1)
+                    .collect(Collectors.toList());
+        }
+        return keysetPage(dates, pageLimit, UCSBDate::getId);
     }
 
     @ApiOperation(value = "Get a single date")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public UCSBDate getById(
+            WebRequest request,
             @ApiParam("id") @RequestParam Long id) {
+        if (notModified(request, UCSBDate.class)) {
+            return null;
+        }
         UCSBDate ucsbDate = ucsbDateRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
 
         return ucsbDate;
     }
 
+    @ApiOperation(value = "List the dates in one quarter, in date order")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/quarter")
+    public ResponseEntity<Iterable<UCSBDate>> datesInQuarter(
+            WebRequest request,
+            @ApiParam("quarter, in YYYYQ format (e.g. 20222)") @RequestParam String q,
+            @ApiParam("return only dates after the one with this id, in date order") @RequestParam(required = false) Long after,
+            @ApiParam("maximum number of dates to return (capped by the server)") @RequestParam(required = false) Integer limit) {
+        if (notModified(request, UCSBDate.class)) {
+            return null;
+        }
+        int pageLimit = pageLimit(limit);
+        PageRequest page = PageRequest.of(0, pageLimit + 1);
+        List<UCSBDate> dates;
+        if (after == null) {
+            dates = ucsbDateRepository.findInQuarter(q, page);
+        } else {
+            UCSBDate last = cursor(after);
+            // dates without a time come last, so after one of them only those remain
+            dates = last.getLocalDateTime() == null
+                    ? ucsbDateRepository.findUntimedInQuarterAfter(q, after, page)
+                    : ucsbDateRepository.findInQuarterAfter(q, last.getLocalDateTime(), after, page);
+        }
+        return keysetPage(dates, pageLimit, UCSBDate::getId);
+    }
+
+    @ApiOperation(value = "List the dates from one time (inclusive) to another (exclusive), in date order")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/range")
+    public ResponseEntity<Iterable<UCSBDate>> datesInRange(
+            WebRequest request,
+            @ApiParam("start (in iso format, e.g. YYYY-mm-ddTHH:MM:SS), inclusive") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @ApiParam("end (in iso format, e.g. YYYY-mm-ddTHH:MM:SS), exclusive") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @ApiParam("return only dates after the one with this id, in date order") @RequestParam(required = false) Long after,
+            @ApiParam("maximum number of dates to return (capped by the server)") @RequestParam(required = false) Integer limit) {
+        if (notModified(request, UCSBDate.class)) {
+            return null;
+        }
+        int pageLimit = pageLimit(limit);
+        PageRequest page = PageRequest.of(0, pageLimit + 1);
+        List<UCSBDate> dates;
+        UCSBDate last = after == null ? null : cursor(after);
+        // a cursor that cannot have come from this range starts it over
+        if (last == null || last.getLocalDateTime() == null || last.getLocalDateTime().isBefore(from)) {
+            dates = ucsbDateRepository.findByLocalDateTimeGreaterThanEqualAndLocalDateTimeLessThanOrderByLocalDateTimeAscIdAsc(
+                    from, to, page);
+        } else {
+            dates = ucsbDateRepository.findInRangeAfter(to, last.getLocalDateTime(), after, page);
+        }
+        return keysetPage(dates, pageLimit, UCSBDate::getId);
+    }
+
+    @ApiOperation(value = "List the next dates after now, earliest first")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/upcoming")
+    public List<UCSBDate> upcomingDates(
+            @ApiParam("maximum number of dates to return, at least 1 (capped by the server)") @RequestParam(required = false) Integer n) {
+        if (n != null && n < 1) {
+            throw new InvalidParameterException("n", n, "must be at least 1");
+        }
+        return upcomingDates.upcoming(LocalDateTime.now(), pageLimit(n));
+    }
+
     @ApiOperation(value = "Create a new date")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/post")
@@ -74,10 +191,23 @@ public class UCSBDatesController extends ApiController {
         ucsbDate.setLocalDateTime(localDateTime);
 
         UCSBDate savedUcsbDate = ucsbDateRepository.save(ucsbDate);
+        tableChanged(UCSBDate.class);
+        upcomingDates.put(savedUcsbDate);
 
         return savedUcsbDate;
     }
 
+    @ApiOperation(value = "Create many dates in one request")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public Iterable<UCSBDate> postUCSBDatesBulk(
+            @ApiParam("dates to create; any ids supplied are ignored") @RequestBody List<UCSBDate> dates) {
+        Iterable<UCSBDate> saved = ucsbDateRepository.saveAll(bulkRows(dates, UCSBDate::setId));
+        tableChanged(UCSBDate.class);
+        upcomingDates.putAll(saved);
+        return saved;
+    }
+
     @ApiOperation(value = "Delete a UCSBDate")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping("")
@@ -87,6 +217,8 @@ public class UCSBDatesController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
 
         ucsbDateRepository.delete(ucsbDate);
+        tableChanged(UCSBDate.class);
+        upcomingDates.remove(id);
         return genericMessage("UCSBDate with id %s deleted".formatted(id));
     }
 
@@ -105,7 +237,14 @@ public class UCSBDatesController extends ApiController {
         ucsbDate.setLocalDateTime(incoming.getLocalDateTime());
 
         ucsbDateRepository.save(ucsbDate);
+        tableChanged(UCSBDate.class);
+        upcomingDates.put(ucsbDate);
 
         return ucsbDate;
     }
+
+    private UCSBDate cursor(long id) {
+        return ucsbDateRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
+    }
 }
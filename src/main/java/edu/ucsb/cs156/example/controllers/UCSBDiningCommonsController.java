@@ -2,13 +2,18 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.errors.InvalidParameterException;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.services.DiningCommonsAmenityIndexService;
+import edu.ucsb.cs156.example.services.DiningCommonsLocatorService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,9 +23,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
+import java.util.List;
+
 
 @Api(description = "UCSBDiningCommons")
 @RequestMapping("/api/ucsbdiningcommons")
@@ -31,25 +39,78 @@ public class UCSBDiningCommonsController extends ApiController {
     @Autowired
     UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
 
+    @Autowired
+    DiningCommonsLocatorService diningCommonsLocator;
+
+    @Autowired
+    DiningCommonsAmenityIndexService diningCommonsAmenities;
+
     @ApiOperation(value = "List all ucsb dining commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDiningCommons> allCommonss() {
-        Iterable<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findAll();
-        return commons;
+    public ResponseEntity<Iterable<UCSBDiningCommons>> allCommonss(
+            WebRequest request,
+            @ApiParam("return only commons whose code is greater than this cursor") @RequestParam(required = false) String after,
+            @ApiParam("maximum number of commons to return (capped by the server)") @RequestParam(required = false) Integer limit) {
+        if (notModified(request, UCSBDiningCommons.class)) {
+            return null;
+        }
+        if (after == null && limit == null) {
+            Iterable<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findAll();
+            return ResponseEntity.ok(commons);
+        }
+        int pageLimit = pageLimit(limit);
+        List<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(
+                after == null ? "" : after, PageRequest.of(0, pageLimit + 1));
+        return keysetPage(commons, pageLimit, UCSBDiningCommons::getCode);
     }
 
     @ApiOperation(value = "Get a single commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public UCSBDiningCommons getById(
+            WebRequest request,
             @ApiParam("code") @RequestParam String code) {
+        if (notModified(request, UCSBDiningCommons.class)) {
+            return null;
+        }
         UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
 
         return commons;
     }
 
+    @ApiOperation(value = "List the commons nearest to a point, closest first")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/nearest")
+    public List<UCSBDiningCommons> nearestCommons(
+            WebRequest request,
+            @ApiParam("latitude") @RequestParam double lat,
+            @ApiParam("longitude") @RequestParam double lon,
+            @ApiParam("number of commons to return, at least 1 (capped by the server)") @RequestParam(defaultValue = "1") int k) {
+        if (k < 1) {
+            throw new InvalidParameterException("k", k, "must be at least 1");
+        }
+        if (notModified(request, UCSBDiningCommons.class)) {
+            return null;
+        }
+        return diningCommonsLocator.nearest(lat, lon, pageLimit(k));
+    }
+
+    @ApiOperation(value = "List the commons with the given amenities; omitted flags match either value")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/filter")
+    public List<UCSBDiningCommons> filterCommons(
+            WebRequest request,
+            @ApiParam("hasSackMeal") @RequestParam(required = false) Boolean hasSackMeal,
+            @ApiParam("hasTakeOutMeal") @RequestParam(required = false) Boolean hasTakeOutMeal,
+            @ApiParam("hasDiningCam") @RequestParam(required = false) Boolean hasDiningCam) {
+        if (notModified(request, UCSBDiningCommons.class)) {
+            return null;
+        }
+        return diningCommonsAmenities.filter(hasSackMeal, hasTakeOutMeal, hasDiningCam);
+    }
+
     @ApiOperation(value = "Create a new commons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/post")
@@ -74,6 +135,9 @@ public class UCSBDiningCommonsController extends ApiController {
         commons.setLongitude(longitude);
 
         UCSBDiningCommons savedCommons = ucsbDiningCommonsRepository.save(commons);
+        tableChanged(UCSBDiningCommons.class);
+        diningCommonsLocator.put(savedCommons);
+        diningCommonsAmenities.put(savedCommons);
 
         return savedCommons;
     }
@@ -87,6 +151,9 @@ public class UCSBDiningCommonsController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
 
         ucsbDiningCommonsRepository.delete(commons);
+        tableChanged(UCSBDiningCommons.class);
+        diningCommonsLocator.remove(code);
+        diningCommonsAmenities.remove(code);
         return genericMessage("UCSBDiningCommons with id %s deleted".formatted(code));
     }
 
@@ -109,6 +176,9 @@ public class UCSBDiningCommonsController extends ApiController {
         commons.setLongitude(incoming.getLongitude());
 
         ucsbDiningCommonsRepository.save(commons);
+        tableChanged(UCSBDiningCommons.class);
+        diningCommonsLocator.put(commons);
+        diningCommonsAmenities.put(commons);
 
         return commons;
     }
@@ -1,11 +1,12 @@
 package edu.ucsb.cs156.example.controllers;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -15,6 +16,13 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 
+import javax.persistence.EntityManager;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
 @Api(description="User information (admin only)")
 @RequestMapping("/api/admin/users")
 @RestController
@@ -22,16 +30,33 @@ public class UsersController extends ApiController {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    EntityManager entityManager;
+
     @Autowired
     ObjectMapper mapper;
 
     @ApiOperation(value = "Get a list of all users")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    @GetMapping("")
-    public ResponseEntity<String> users()
-            throws JsonProcessingException {
-        Iterable<User> users = userRepository.findAll();
-        String body = mapper.writeValueAsString(users);
-        return ResponseEntity.ok().body(body);
+    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Transactional(readOnly = true)
+    public void users(HttpServletResponse response)
+            throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        // Each user is written straight to the response and then detached,
+        // so neither the entities nor the JSON accumulate in memory.
+        try (Stream<User> users = userRepository.streamAllByOrderByIdAsc();
+                JsonGenerator generator = mapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            Iterator<User> it = users.iterator();
+            while (it.hasNext()) {
+                User user = it.next();
+                generator.writeObject(user);
+                entityManager.detach(user);
+            }
+            generator.writeEndArray();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.example.entities;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * A {@link UCSBDate} from a past quarter, moved out of the ucsbdates table by
+ * the archive job. It keeps the id it had there, so ids are unique across
+ * both tables. On Postgres the table is partitioned by quarter (see
+ * ArchivePartitionInitializer).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "ucsbdates_archive")
+@Table(indexes = @Index(name = "ucsbdates_archive_local_date_time_idx", columnList = "localDateTime"))
+public class ArchivedUCSBDate {
+  @Id
+  private long id;
+
+  private String quarterYYYYQ;
+  private String name;
+  private LocalDateTime localDateTime;
+
+  public UCSBDate toUCSBDate() {
+    return UCSBDate.builder()
+        .id(id)
+        .quarterYYYYQ(quarterYYYYQ)
+        .name(name)
+        .localDateTime(localDateTime)
+        .build();
+  }
+}
@@ -6,6 +6,7 @@ import javax.persistence.Entity;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.GeneratedValue;
+import javax.persistence.SequenceGenerator;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,7 +20,8 @@ import lombok.Builder;
 @Entity(name = "attractions")
 public class Attractions {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attractions_seq")
+  @SequenceGenerator(name = "attractions_seq", sequenceName = "attractions_seq", allocationSize = 50)
   private long id;
 
   private String name;
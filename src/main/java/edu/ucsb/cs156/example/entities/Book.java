@@ -1,9 +1,18 @@
 package edu.ucsb.cs156.example.entities;
 
+import java.time.Instant;
+
 import javax.persistence.Entity;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.GeneratedValue;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,12 +24,25 @@ import lombok.Builder;
 @NoArgsConstructor
 @Builder
 @Entity(name = "book")
+@Table(indexes = @Index(name = "book_updated_at_idx", columnList = "updatedAt"))
 public class Book {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+  @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
   private long id;
   private String name;
   private String author;  
   private String genre;  
   private long wordcount;
-}
\ No newline at end of file
+
+  // set on every save, in the same transaction as the change; see
+  // BookRepository#changeMarker
+  @JsonIgnore
+  private Instant updatedAt;
+
+  @PrePersist
+  @PreUpdate
+  void touch() {
+    updatedAt = Instant.now();
+  }
+}
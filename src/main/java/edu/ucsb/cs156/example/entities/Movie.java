@@ -4,6 +4,7 @@ import javax.persistence.Entity;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.GeneratedValue;
+import javax.persistence.SequenceGenerator;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,7 +18,8 @@ import lombok.Builder;
 @Entity(name = "movies")
 public class Movie {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movies_seq")
+  @SequenceGenerator(name = "movies_seq", sequenceName = "movies_seq", allocationSize = 50)
   private long id;
 
   private String name;  
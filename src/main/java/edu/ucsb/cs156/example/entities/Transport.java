@@ -1,11 +1,27 @@
 package edu.ucsb.cs156.example.entities;
 
-import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.GeneratedValue;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.PostLoad;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,12 +33,77 @@ import lombok.Builder;
 @NoArgsConstructor
 @Builder
 @Entity(name = "transport")
+@Table(indexes = {
+    @Index(name = "transport_cost_cents_idx", columnList = "costCents, id"),
+    @Index(name = "transport_mode_id_idx", columnList = "mode_id, id")
+})
 public class Transport {
+  private static final Pattern AMOUNT = Pattern.compile("[0-9]+(\\.[0-9]+)?");
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transport_seq")
+  @SequenceGenerator(name = "transport_seq", sequenceName = "transport_seq", allocationSize = 50)
   private long id;
 
   private String name;
-  private String mode;  
+
+  // filled from modeRef on load; set modeRef as well before saving
+  @Transient
+  private String mode;
+
+  @JsonIgnore
+  @ManyToOne
+  @JoinColumn(name = "mode_id")
+  private TransportMode modeRef;
+
+  // the mode as rows stored it before mode_id; read only until
+  // TransportModeInitializer has given every such row its modeRef
+  @JsonIgnore
+  @Column(name = "mode", insertable = false, updatable = false)
+  private String legacyMode;
+
   private String cost;
-}
\ No newline at end of file
+
+  // cost in cents, derived from cost on every save; null when it has no amount
+  private Long costCents;
+
+  @PrePersist
+  @PreUpdate
+  void parseCost() {
+    costCents = costCents(cost);
+  }
+
+  @PostLoad
+  void decodeMode() {
+    mode = modeRef == null ? legacyMode : modeRef.getName();
+  }
+
+  /**
+   * The first amount in a free-form cost such as "$2.50", "1,200" or
+   * "$3-5 per ride", in cents; "free" is 0 and anything without a number, or
+   * with one too large to count in cents, is null. Must agree with the
+   * backfill in V9__Transport_cost_cents.sql.
+   */
+  public static Long costCents(String cost) {
+    if (cost == null) {
+      return null;
+    }
+    String text = cost.replace(",", "").trim();
+    if (text.toLowerCase(Locale.ROOT).equals("free")) {
+      return 0L;
+    }
+    Matcher amount = AMOUNT.matcher(text);
+    if (!amount.find()) {
+      return null;
+    }
+    try {
+      return toCents(new BigDecimal(amount.group()));
+    } catch (ArithmeticException e) {
+      return null;
+    }
+  }
+
+  public static long toCents(BigDecimal dollars) {
+    return dollars.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+  }
+}
@@ -0,0 +1,47 @@
+package edu.ucsb.cs156.example.entities;
+
+import javax.persistence.Cacheable;
+import javax.persistence.Entity;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.GeneratedValue;
+import javax.persistence.PostLoad;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * One entry of the dictionary of transport modes ("bus", "bike", ...); each
+ * transport row refers to its mode by id. Entries are never changed once
+ * written.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "transport_modes")
+@Table(uniqueConstraints = @UniqueConstraint(name = "transport_modes_name_key", columnNames = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "transport_modes")
+public class TransportMode {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transport_modes_seq")
+  @SequenceGenerator(name = "transport_modes_seq", sequenceName = "transport_modes_seq", allocationSize = 50)
+  private int id;
+
+  private String name;
+
+  // every transport loaded with this mode then shares one copy of the name
+  @PostLoad
+  void internName() {
+    name = name.intern();
+  }
+}
@@ -4,6 +4,9 @@ import javax.persistence.Entity;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.GeneratedValue;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,9 +18,11 @@ import lombok.Builder;
 @NoArgsConstructor
 @Builder
 @Entity(name = "trees")
+@Table(indexes = @Index(name = "trees_category_idx", columnList = "category, id"))
 public class Tree {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trees_seq")
+  @SequenceGenerator(name = "trees_seq", sequenceName = "trees_seq", allocationSize = 50)
   private long id;
 
   private String name;  
@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.entities;
+
+import javax.persistence.Entity;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.GeneratedValue;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * A node of the tree category hierarchy (Conifer > Pine > ...). A tree is in
+ * a category when its category string is the category's name. Ancestry is
+ * kept in the {@link TreeCategoryPath} closure table, so parentId is only
+ * the direct parent, or null for a top level category.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "tree_categories")
+@Table(uniqueConstraints = @UniqueConstraint(name = "tree_categories_name_key", columnNames = "name"))
+public class TreeCategory {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tree_categories_seq")
+  @SequenceGenerator(name = "tree_categories_seq", sequenceName = "tree_categories_seq", allocationSize = 50)
+  private long id;
+
+  private String name;
+  private Long parentId;
+}
@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.example.entities;
+
+import java.io.Serializable;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * One row of the closure table of the tree category hierarchy: the category
+ * descendantId is depth levels below ancestorId. Every category also has a
+ * row for itself at depth 0, so "a category and everything under it" is the
+ * rows with a given ancestorId.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "tree_category_paths")
+@IdClass(TreeCategoryPath.Key.class)
+@Table(indexes = @Index(name = "tree_category_paths_descendant_idx", columnList = "descendantId, depth"))
+public class TreeCategoryPath {
+  @Id
+  private long ancestorId;
+
+  @Id
+  private long descendantId;
+
+  private int depth;
+
+  @Data
+  @AllArgsConstructor
+  @NoArgsConstructor
+  public static class Key implements Serializable {
+    private long ancestorId;
+    private long descendantId;
+  }
+}
@@ -6,6 +6,9 @@ import javax.persistence.Entity;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.GeneratedValue;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,9 +20,14 @@ import lombok.Builder;
 @NoArgsConstructor
 @Builder
 @Entity(name = "ucsbdates")
+@Table(indexes = {
+    @Index(name = "ucsbdates_quarter_idx", columnList = "quarterYYYYQ, localDateTime"),
+    @Index(name = "ucsbdates_local_date_time_idx", columnList = "localDateTime")
+})
 public class UCSBDate {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ucsbdates_seq")
+  @SequenceGenerator(name = "ucsbdates_seq", sequenceName = "ucsbdates_seq", allocationSize = 50)
   private long id;
 
   private String quarterYYYYQ;
@@ -9,12 +9,15 @@ import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
+import javax.persistence.Index;
+import javax.persistence.Table;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Builder
 @Entity(name = "users")
+@Table(indexes = @Index(name = "users_email_unique_idx", columnList = "email", unique = true))
 public class User {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
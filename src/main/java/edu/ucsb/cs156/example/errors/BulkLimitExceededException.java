@@ -0,0 +1,8 @@
+package edu.ucsb.cs156.example.errors;
+
+public class BulkLimitExceededException extends RuntimeException {
+  public BulkLimitExceededException(int size, int maxSize) {
+    super("Bulk request has %d rows; at most %d are allowed"
+      .formatted(size, maxSize));
+  }
+}
@@ -0,0 +1,7 @@
+package edu.ucsb.cs156.example.errors;
+
+public class CategoryHierarchyException extends RuntimeException {
+  public CategoryHierarchyException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package edu.ucsb.cs156.example.errors;
+
+public class InvalidParameterException extends RuntimeException {
+  public InvalidParameterException(String name, Object value, String requirement) {
+    super("Parameter %s %s but was %s"
+      .formatted(name, requirement, value));
+  }
+}
@@ -0,0 +1,25 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class HandlerLatencyStatistics {
+  private String handler;
+  private long count;
+  private long errorCount;
+  private double errorRate;
+  private long inFlight;
+  private double meanMicros;
+  private long p50Micros;
+  private long p95Micros;
+  private long p99Micros;
+  private long maxMicros;
+}
@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class WordcountStatistics {
+  private String genre;
+  private long count;
+  private long min;
+  private long max;
+  private double mean;
+  private long p50;
+  private long p90;
+  private long p99;
+}
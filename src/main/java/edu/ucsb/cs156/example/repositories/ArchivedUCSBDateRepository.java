@@ -0,0 +1,15 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.ArchivedUCSBDate;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+
+@Repository
+public interface ArchivedUCSBDateRepository extends CrudRepository<ArchivedUCSBDate, Long> {
+  List<ArchivedUCSBDate> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+}
@@ -2,10 +2,14 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Attractions;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 
 @Repository
 public interface AttractionsRepository extends CrudRepository<Attractions, Long> {
+  List<Attractions> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
 }
\ No newline at end of file
@@ -2,11 +2,41 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Book;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 
 @Repository
 public interface BookRepository extends CrudRepository<Book, Long> {
+  List<Book> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
   Iterable<Book> findAllByAuthor(String author);
-}
\ No newline at end of file
+
+  // books without a genre are grouped under ""
+  @Query("SELECT DISTINCT COALESCE(b.genre, '') FROM book b")
+  List<String> findDistinctGenres();
+
+  @Query("SELECT b.wordcount FROM book b WHERE COALESCE(b.genre, '') = :genre")
+  List<Long> findWordcountsByGenre(@Param("genre") String genre);
+
+  // one row of (count, max id, latest updatedAt)
+  @Query("SELECT COUNT(b), MAX(b.id), MAX(b.updatedAt) FROM book b")
+  List<Object[]> findChangeMarker();
+
+  /**
+   * A value that changes whenever a book is added, deleted or saved through
+   * the app: the row count, the highest id and the latest updatedAt, which
+   * every save sets in its own transaction. Both maxima come from an index,
+   * so this never reads the rows themselves. An edit made outside the app
+   * that leaves updated_at alone, and does not change the count, is not
+   * seen.
+   */
+  default String changeMarker() {
+    Object[] row = findChangeMarker().get(0);
+    return "%s:%s:%s".formatted(row[0], row[1], row[2]);
+  }
+}
@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.repositories;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * The databases the hand-written native SQL is written for: Postgres in
+ * production, H2 in development and tests.
+ */
+public enum DatabaseDialect {
+  POSTGRES,
+  H2,
+  OTHER;
+
+  public static DatabaseDialect of(EntityManager entityManager) {
+    return of(entityManager.getEntityManagerFactory());
+  }
+
+  public static DatabaseDialect of(EntityManagerFactory entityManagerFactory) {
+    Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+        .getJdbcServices()
+        .getDialect();
+    if (dialect instanceof PostgreSQL81Dialect) {
+      return POSTGRES;
+    }
+    if (dialect instanceof H2Dialect) {
+      return H2;
+    }
+    return OTHER;
+  }
+}
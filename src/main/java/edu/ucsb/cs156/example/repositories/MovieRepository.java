@@ -2,11 +2,20 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Movie;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 
 @Repository
 public interface MovieRepository extends CrudRepository<Movie, Long> {
+  List<Movie> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
   Iterable<Movie> findAllByName(String name);
+
+  // rows of (genre, year, count); movies without a genre are grouped under ""
+  @Query("SELECT COALESCE(m.genre, ''), m.year, COUNT(m) FROM movies m GROUP BY COALESCE(m.genre, ''), m.year")
+  List<Object[]> countByGenreAndYear();
 }
\ No newline at end of file
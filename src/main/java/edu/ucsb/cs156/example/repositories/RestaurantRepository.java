@@ -2,11 +2,15 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Restaurant;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 
 @Repository
-public interface RestaurantRepository extends CrudRepository<Restaurant, Long> {
+public interface RestaurantRepository extends CrudRepository<Restaurant, Long>, RestaurantSearchRepository {
+  List<Restaurant> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
   Iterable<Restaurant> findAllByName(String name);
 }
\ No newline at end of file
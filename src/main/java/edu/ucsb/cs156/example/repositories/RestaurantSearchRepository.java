@@ -0,0 +1,15 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+
+import java.util.List;
+
+public interface RestaurantSearchRepository {
+  /**
+   * Restaurants whose description or details contain every word of the
+   * query, best match first, skipping offset of them and returning at most
+   * limit. Uses the database's full-text index (see
+   * {@link edu.ucsb.cs156.example.config.RestaurantSearchInitializer}).
+   */
+  List<Restaurant> search(String query, long offset, int limit);
+}
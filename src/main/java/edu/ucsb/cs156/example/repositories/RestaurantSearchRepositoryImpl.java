@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import java.util.List;
+
+public class RestaurantSearchRepositoryImpl implements RestaurantSearchRepository {
+
+  // language=PostgreSQL
+  private static final String POSTGRES_SEARCH = """
+      SELECT r.id, r.name, r.description, r.details
+      FROM restaurant r, plainto_tsquery('english', :query) q
+      WHERE r.search_vector @@ q
+      ORDER BY ts_rank(r.search_vector, q) DESC, r.id
+      LIMIT :limit OFFSET :offset
+      """;
+
+  // H2's built-in FullText gives every match the same score, so ties (all of
+  // them) are broken by id to keep pages stable
+  private static final String H2_SEARCH = """
+      SELECT r.id, r.name, r.description, r.details
+      FROM FT_SEARCH_DATA(:query, 0, 0) ft
+      JOIN restaurant r ON r.id = CAST(ARRAY_GET(ft.KEYS, 1) AS BIGINT)
+      WHERE ft."TABLE" = 'RESTAURANT'
+      ORDER BY ft.SCORE DESC, r.id
+      LIMIT :limit OFFSET :offset
+      """;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<Restaurant> search(String query, long offset, int limit) {
+    String sql = DatabaseDialect.of(entityManager) == DatabaseDialect.POSTGRES ? POSTGRES_SEARCH : H2_SEARCH;
+    return entityManager.createNativeQuery(sql, Restaurant.class)
+        .setParameter("query", query)
+        .setParameter("limit", limit)
+        .setParameter("offset", offset)
+        .getResultList();
+  }
+}
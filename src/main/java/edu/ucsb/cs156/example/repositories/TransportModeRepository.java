@@ -0,0 +1,14 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.TransportMode;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+
+@Repository
+public interface TransportModeRepository extends CrudRepository<TransportMode, Integer> {
+  Optional<TransportMode> findByName(String name);
+}
@@ -1,12 +1,31 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Transport;
+import edu.ucsb.cs156.example.entities.TransportMode;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 
 @Repository
 public interface TransportRepository extends CrudRepository<Transport, Long> {
-  
-}
\ No newline at end of file
+  List<Transport> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  List<Transport> findByModeRefAndIdGreaterThanOrderByIdAsc(TransportMode modeRef, long id, Pageable pageable);
+
+  List<Transport> findByCostCentsLessThanEqualAndIdGreaterThanOrderByIdAsc(long maxCents, long id, Pageable pageable);
+
+  List<Transport> findByCostCentsLessThanEqualOrderByCostCentsAscIdAsc(long maxCents, Pageable pageable);
+
+  // next page in (costCents, id) order after the transport with the given cost and id
+  @Query("SELECT t FROM transport t WHERE t.costCents <= :maxCents"
+      + " AND (t.costCents > :cost OR (t.costCents = :cost AND t.id > :id))"
+      + " ORDER BY t.costCents ASC, t.id ASC")
+  List<Transport> findByCostAfter(
+      @Param("maxCents") long maxCents, @Param("cost") long cost, @Param("id") long id, Pageable pageable);
+}
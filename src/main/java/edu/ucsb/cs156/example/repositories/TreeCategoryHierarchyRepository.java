@@ -0,0 +1,33 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.TreeCategory;
+
+public interface TreeCategoryHierarchyRepository {
+  /**
+   * Create a category under the given parent (null for top level) together
+   * with its closure rows, in one transaction.
+   *
+   * @throws edu.ucsb.cs156.example.errors.CategoryHierarchyException if a
+   *         category with that name already exists
+   */
+  TreeCategory addCategory(String name, Long parentId);
+
+  /**
+   * Re-parent a category and everything under it (null parent for top
+   * level), rewriting only the closure rows that link the moved subtree to
+   * its old and new ancestors.
+   *
+   * @throws edu.ucsb.cs156.example.errors.CategoryHierarchyException if the
+   *         new parent is the category itself or below it
+   */
+  void moveCategory(long id, Long parentId);
+
+  /**
+   * Delete a category that has no categories below it, with its closure rows.
+   *
+   * @throws edu.ucsb.cs156.example.errors.CategoryHierarchyException if it
+   *         still has child categories
+   */
+  void removeCategory(long id);
+
+}
@@ -0,0 +1,129 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.TreeCategory;
+import edu.ucsb.cs156.example.errors.CategoryHierarchyException;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+
+
+public class TreeCategoryHierarchyRepositoryImpl implements TreeCategoryHierarchyRepository {
+
+  private static final String INSERT_SELF =
+      "INSERT INTO tree_category_paths (ancestor_id, descendant_id, depth) VALUES (:id, :id, 0)";
+
+  private static final String INSERT_UNDER_PARENT = """
+      INSERT INTO tree_category_paths (ancestor_id, descendant_id, depth)
+      SELECT ancestor_id, :id, depth + 1 FROM tree_category_paths WHERE descendant_id = :parent
+      """;
+
+  private static final String IS_IN_SUBTREE =
+      "SELECT COUNT(*) FROM tree_category_paths WHERE ancestor_id = :id AND descendant_id = :other";
+
+  // every path from an ancestor strictly above the moved category to a
+  // category in its subtree; paths inside the subtree are left alone
+  private static final String DETACH_SUBTREE = """
+      DELETE FROM tree_category_paths
+      WHERE descendant_id IN (SELECT descendant_id FROM tree_category_paths WHERE ancestor_id = :id)
+        AND ancestor_id IN (SELECT ancestor_id FROM tree_category_paths WHERE descendant_id = :id AND ancestor_id <> :id)
+      """;
+
+  // a path from each ancestor of the new parent (the parent included) to
+  // each category of the subtree
+  private static final String ATTACH_SUBTREE = """
+      INSERT INTO tree_category_paths (ancestor_id, descendant_id, depth)
+      SELECT up.ancestor_id, down.descendant_id, up.depth + down.depth + 1
+      FROM tree_category_paths up CROSS JOIN tree_category_paths down
+      WHERE up.descendant_id = :parent AND down.ancestor_id = :id
+      """;
+
+  private static final String COUNT_NAMED = "SELECT COUNT(*) FROM tree_categories WHERE name = :name";
+
+  private static final String COUNT_CHILDREN = "SELECT COUNT(*) FROM tree_categories WHERE parent_id = :id";
+
+  private static final String DELETE_PATHS = "DELETE FROM tree_category_paths WHERE descendant_id = :id";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional
+  public TreeCategory addCategory(String name, Long parentId) {
+    if (((Number) entityManager.createNativeQuery(COUNT_NAMED)
+        .setParameter("name", name)
+        .getSingleResult()).longValue() > 0) {
+      throw duplicateName(name);
+    }
+    TreeCategory category = TreeCategory.builder().name(name).parentId(parentId).build();
+    entityManager.persist(category);
+    try {
+      entityManager.flush();
+    } catch (PersistenceException e) {
+      // another request added the same name since the check above
+      if (e.getCause() instanceof ConstraintViolationException) {
+        throw duplicateName(name);
+      }
+      throw e;
+    }
+    entityManager.createNativeQuery(INSERT_SELF)
+        .setParameter("id", category.getId())
+        .executeUpdate();
+    if (parentId != null) {
+      entityManager.createNativeQuery(INSERT_UNDER_PARENT)
+          .setParameter("id", category.getId())
+          .setParameter("parent", parentId)
+          .executeUpdate();
+    }
+    return category;
+  }
+
+  @Override
+  @Transactional
+  public void moveCategory(long id, Long parentId) {
+    if (parentId != null && isInSubtree(id, parentId)) {
+      throw new CategoryHierarchyException(
+          "TreeCategory %d cannot be moved under %d, which is itself or below it".formatted(id, parentId));
+    }
+    entityManager.find(TreeCategory.class, id).setParentId(parentId);
+    entityManager.createNativeQuery(DETACH_SUBTREE)
+        .setParameter("id", id)
+        .executeUpdate();
+    if (parentId != null) {
+      entityManager.createNativeQuery(ATTACH_SUBTREE)
+          .setParameter("id", id)
+          .setParameter("parent", parentId)
+          .executeUpdate();
+    }
+  }
+
+  @Override
+  @Transactional
+  public void removeCategory(long id) {
+    long children = ((Number) entityManager.createNativeQuery(COUNT_CHILDREN)
+        .setParameter("id", id)
+        .getSingleResult()).longValue();
+    if (children > 0) {
+      throw new CategoryHierarchyException(
+          "TreeCategory %d still has %d categories under it".formatted(id, children));
+    }
+    entityManager.createNativeQuery(DELETE_PATHS)
+        .setParameter("id", id)
+        .executeUpdate();
+    entityManager.remove(entityManager.find(TreeCategory.class, id));
+  }
+
+  private static CategoryHierarchyException duplicateName(String name) {
+    return new CategoryHierarchyException("TreeCategory named %s already exists".formatted(name));
+  }
+
+  private boolean isInSubtree(long id, long other) {
+    return ((Number) entityManager.createNativeQuery(IS_IN_SUBTREE)
+        .setParameter("id", id)
+        .setParameter("other", other)
+        .getSingleResult()).longValue() > 0;
+  }
+}
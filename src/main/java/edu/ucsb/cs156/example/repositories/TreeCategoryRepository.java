@@ -0,0 +1,14 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.TreeCategory;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+
+@Repository
+public interface TreeCategoryRepository extends CrudRepository<TreeCategory, Long>, TreeCategoryHierarchyRepository {
+  Optional<TreeCategory> findByName(String name);
+}
@@ -2,11 +2,28 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Tree;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 
 @Repository
 public interface TreeRepository extends CrudRepository<Tree, Long> {
+  List<Tree> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
   Iterable<Tree> findAllByName(String name);
+
+  // rows of (category, count); trees without a category are grouped under ""
+  @Query("SELECT COALESCE(t.category, ''), COUNT(t) FROM trees t GROUP BY COALESCE(t.category, '')")
+  List<Object[]> countByCategory();
+
+  // trees whose category is the given one or any category below it
+  @Query("SELECT t FROM trees t WHERE t.id > :after AND t.category IN ("
+      + "SELECT c.name FROM tree_categories c, tree_category_paths p"
+      + " WHERE p.ancestorId = :categoryId AND c.id = p.descendantId)"
+      + " ORDER BY t.id ASC")
+  List<Tree> findInCategorySubtree(@Param("categoryId") long categoryId, @Param("after") long after, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package edu.ucsb.cs156.example.repositories;
+
+public interface UCSBDateArchiveRepository {
+  /**
+   * Move every date whose quarter sorts before the given one from ucsbdates
+   * into ucsbdates_archive, in one transaction. On Postgres a partition of
+   * the archive is created for each quarter being moved, if the archive is
+   * partitioned and the partition does not exist yet.
+   *
+   * @return the number of dates moved
+   */
+  int archiveQuartersBefore(String quarterYYYYQ);
+}
@@ -0,0 +1,70 @@
+package edu.ucsb.cs156.example.repositories;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class UCSBDateArchiveRepositoryImpl implements UCSBDateArchiveRepository {
+
+  private static final String COPY_TO_ARCHIVE = """
+      INSERT INTO ucsbdates_archive (id, quarter_yyyyq, name, local_date_time)
+      SELECT id, quarter_yyyyq, name, local_date_time FROM ucsbdates WHERE quarter_yyyyq < :quarter
+      """;
+
+  private static final String DELETE_ARCHIVED = "DELETE FROM ucsbdates WHERE quarter_yyyyq < :quarter";
+
+  // language=PostgreSQL
+  private static final String IS_PARTITIONED = """
+      SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid
+      WHERE c.relname = 'ucsbdates_archive'
+      """;
+
+  private static final String QUARTERS_TO_ARCHIVE =
+      "SELECT DISTINCT quarter_yyyyq FROM ucsbdates WHERE quarter_yyyyq < :quarter";
+
+  // quarters go into the partition DDL as literals, so only well formed ones
+  // get a partition of their own; anything else lands in the default one
+  private static final Pattern QUARTER = Pattern.compile("\\d{4}[1-4]");
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional
+  public int archiveQuartersBefore(String quarterYYYYQ) {
+    if (DatabaseDialect.of(entityManager) == DatabaseDialect.POSTGRES && isPartitioned()) {
+      createPartitions(quarterYYYYQ);
+    }
+    entityManager.createNativeQuery(COPY_TO_ARCHIVE)
+        .setParameter("quarter", quarterYYYYQ)
+        .executeUpdate();
+    return entityManager.createNativeQuery(DELETE_ARCHIVED)
+        .setParameter("quarter", quarterYYYYQ)
+        .executeUpdate();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void createPartitions(String quarterYYYYQ) {
+    List<String> quarters = entityManager.createNativeQuery(QUARTERS_TO_ARCHIVE)
+        .setParameter("quarter", quarterYYYYQ)
+        .getResultList();
+    for (String quarter : quarters) {
+      if (QUARTER.matcher(quarter).matches()) {
+        entityManager.createNativeQuery(
+            "CREATE TABLE IF NOT EXISTS ucsbdates_archive_" + quarter
+                + " PARTITION OF ucsbdates_archive FOR VALUES IN ('" + quarter + "')")
+            .executeUpdate();
+      }
+    }
+  }
+
+  // ArchivePartitionInitializer creates it partitioned at startup; this only
+  // guards against a table created by hand, which still archives, unsplit
+  private boolean isPartitioned() {
+    return ((Number) entityManager.createNativeQuery(IS_PARTITIONED).getSingleResult()).longValue() > 0;
+  }
+}
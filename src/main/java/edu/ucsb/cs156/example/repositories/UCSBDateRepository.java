@@ -2,11 +2,45 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.UCSBDate;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 
 @Repository
-public interface UCSBDateRepository extends CrudRepository<UCSBDate, Long> {
-  Iterable<UCSBDate> findAllByQuarterYYYYQ(String quarterYYYYQ);
-}
\ No newline at end of file
+public interface UCSBDateRepository extends CrudRepository<UCSBDate, Long>, UCSBDateArchiveRepository {
+  List<UCSBDate> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  // the dates of a quarter in (localDateTime, id) order; dates without a time come last
+  @Query("SELECT d FROM ucsbdates d WHERE d.quarterYYYYQ = :quarter"
+      + " ORDER BY d.localDateTime ASC NULLS LAST, d.id ASC")
+  List<UCSBDate> findInQuarter(@Param("quarter") String quarterYYYYQ, Pageable pageable);
+
+  // next page of a quarter after the date with the given time and id
+  @Query("SELECT d FROM ucsbdates d WHERE d.quarterYYYYQ = :quarter"
+      + " AND (d.localDateTime > :time OR (d.localDateTime = :time AND d.id > :id) OR d.localDateTime IS NULL)"
+      + " ORDER BY d.localDateTime ASC NULLS LAST, d.id ASC")
+  List<UCSBDate> findInQuarterAfter(@Param("quarter") String quarterYYYYQ,
+      @Param("time") LocalDateTime time, @Param("id") long id, Pageable pageable);
+
+  // next page of a quarter after a date without a time, so only those are left
+  @Query("SELECT d FROM ucsbdates d WHERE d.quarterYYYYQ = :quarter"
+      + " AND d.localDateTime IS NULL AND d.id > :id ORDER BY d.id ASC")
+  List<UCSBDate> findUntimedInQuarterAfter(@Param("quarter") String quarterYYYYQ,
+      @Param("id") long id, Pageable pageable);
+
+  List<UCSBDate> findByLocalDateTimeGreaterThanEqualAndLocalDateTimeLessThanOrderByLocalDateTimeAscIdAsc(
+      LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+  // next page of a range after the date with the given time and id
+  @Query("SELECT d FROM ucsbdates d WHERE d.localDateTime < :to"
+      + " AND (d.localDateTime > :time OR (d.localDateTime = :time AND d.id > :id))"
+      + " ORDER BY d.localDateTime ASC, d.id ASC")
+  List<UCSBDate> findInRangeAfter(@Param("to") LocalDateTime to,
+      @Param("time") LocalDateTime time, @Param("id") long id, Pageable pageable);
+}
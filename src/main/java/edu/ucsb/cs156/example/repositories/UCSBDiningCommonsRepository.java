@@ -3,11 +3,26 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 
 import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 
 @Repository
 public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String> {
- 
+  // The listings go through the query cache; the rows themselves (and
+  // findById) come from the entity's second-level cache region.
+  @Override
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  Iterable<UCSBDiningCommons> findAll();
+
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  List<UCSBDiningCommons> findByCodeGreaterThanOrderByCodeAsc(String code, Pageable pageable);
 }
\ No newline at end of file
@@ -1,12 +1,24 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.User;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface UserRepository extends CrudRepository<User, Long> {
+public interface UserRepository extends CrudRepository<User, Long>, UserUpsertRepository {
   Optional<User> findByEmail(String email);
+
+  // Rows are fetched from the JDBC cursor in batches of
+  // spring.jpa.properties.hibernate.jdbc.fetch_size; the caller must
+  // consume the stream inside a transaction and close it.
+  @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+  Stream<User> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,15 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.User;
+
+public interface UserUpsertRepository {
+  /**
+   * Insert the user if no row with its email exists yet; otherwise keep the
+   * existing row, promoting it to admin if the incoming user is an admin.
+   * Relies on the unique index on users.email, so concurrent first logins
+   * of the same account cannot create duplicate rows.
+   *
+   * @return the row as stored after the upsert
+   */
+  User upsertByEmail(User user);
+}
@@ -0,0 +1,74 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.User;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+public class UserUpsertRepositoryImpl implements UserUpsertRepository {
+
+  // language=PostgreSQL
+  private static final String POSTGRES_UPSERT = """
+      INSERT INTO users (email, google_sub, picture_url, full_name, given_name,
+                         family_name, email_verified, locale, hosted_domain, admin)
+      VALUES (:email, :googleSub, :pictureUrl, :fullName, :givenName,
+              :familyName, :emailVerified, :locale, :hostedDomain, :admin)
+      ON CONFLICT (email) DO UPDATE SET admin = users.admin OR EXCLUDED.admin
+      RETURNING id, admin
+      """;
+
+  // H2 has no ON CONFLICT; MERGE ... USING gives the same single-statement
+  // insert-or-promote, and the id and admin flag are read back afterwards.
+  private static final String H2_MERGE = """
+      MERGE INTO users u
+      USING (SELECT CAST(:email AS VARCHAR) AS email, CAST(:admin AS BOOLEAN) AS admin) s
+      ON u.email = s.email
+      WHEN MATCHED THEN UPDATE SET admin = (u.admin OR s.admin)
+      WHEN NOT MATCHED THEN INSERT (email, google_sub, picture_url, full_name, given_name,
+                                    family_name, email_verified, locale, hosted_domain, admin)
+        VALUES (:email, :googleSub, :pictureUrl, :fullName, :givenName,
+                :familyName, :emailVerified, :locale, :hostedDomain, :admin)
+      """;
+
+  private static final String SELECT_ID_AND_ADMIN = "SELECT id, admin FROM users WHERE email = :email";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  // Only the id and admin flag are read back from the database; the other
+  // columns are exactly what was passed in (or older values of the same
+  // OAuth profile), so the returned User is the incoming one, detached.
+  @Override
+  @Transactional
+  public User upsertByEmail(User user) {
+    Object[] row;
+    if (DatabaseDialect.of(entityManager) == DatabaseDialect.POSTGRES) {
+      row = (Object[]) bind(entityManager.createNativeQuery(POSTGRES_UPSERT), user).getSingleResult();
+    } else {
+      bind(entityManager.createNativeQuery(H2_MERGE), user).executeUpdate();
+      row = (Object[]) entityManager.createNativeQuery(SELECT_ID_AND_ADMIN)
+          .setParameter("email", user.getEmail())
+          .getSingleResult();
+    }
+    user.setId(((Number) row[0]).longValue());
+    user.setAdmin((Boolean) row[1]);
+    return user;
+  }
+
+  private Query bind(Query query, User user) {
+    return query
+        .setParameter("email", user.getEmail())
+        .setParameter("googleSub", user.getGoogleSub())
+        .setParameter("pictureUrl", user.getPictureUrl())
+        .setParameter("fullName", user.getFullName())
+        .setParameter("givenName", user.getGivenName())
+        .setParameter("familyName", user.getFamilyName())
+        .setParameter("emailVerified", user.getEmailVerified())
+        .setParameter("locale", user.getLocale())
+        .setParameter("hostedDomain", user.getHostedDomain())
+        .setParameter("admin", user.getAdmin());
+  }
+}
@@ -0,0 +1,293 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.repositories.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-process inverted index over the name, author and genre of every book.
+ *
+ * Text is split on anything that is not a letter or digit and lower-cased;
+ * each query word matches any indexed word it is a prefix of, and a book
+ * matches when every query word does. Terms are kept in a sorted map, so a
+ * prefix is one range of it.
+ *
+ * Only the postings are kept; the matching books themselves are read from
+ * the table by id, so a result is never an out-of-date copy of a row.
+ *
+ * The controller updates the index after each write. The postings are saved
+ * to app.bookSearch.indexFile shortly after they change and on shutdown,
+ * together with the table's change marker (see
+ * {@link BookRepository#changeMarker()}), and read back at startup instead of
+ * being rebuilt from the table, unless the marker has moved since: a write
+ * that never reached the file. Reading the marker costs two index lookups
+ * and a count, not a pass over the rows.
+ */
+@Slf4j
+@Service("bookSearch")
+public class BookSearchService {
+
+  private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+  private static final int FILE_FORMAT = 3;
+
+  private final BookRepository bookRepository;
+  private final Path indexFile;
+
+  private final ConcurrentNavigableMap<String, NavigableSet<Long>> postings = new ConcurrentSkipListMap<>();
+
+  // guarded by this
+  private final Map<Long, Set<String>> termsById = new HashMap<>();
+  private boolean dirty;
+
+  // held while writing the file, so an older snapshot never replaces a newer one
+  private final Object saveLock = new Object();
+
+  public BookSearchService(
+      BookRepository bookRepository,
+      @Value("${app.bookSearch.indexFile:target/book-search.idx}") Path indexFile) {
+    this.bookRepository = bookRepository;
+    this.indexFile = indexFile;
+  }
+
+  @PostConstruct
+  public synchronized void load() {
+    String marker = bookRepository.changeMarker();
+    try {
+      if (Files.exists(indexFile) && marker.equals(readIndex())) {
+        log.info("Loaded book search index ({} terms) from {}", postings.size(), indexFile);
+        return;
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("Could not read book search index {}, rebuilding it", indexFile, e);
+    }
+    rebuild();
+  }
+
+  public synchronized void rebuild() {
+    postings.clear();
+    termsById.clear();
+    bookRepository.findAll().forEach(this::put);
+    dirty = true;
+  }
+
+  public synchronized void put(Book book) {
+    removeTerms(book.getId());
+    Set<String> terms = new HashSet<>();
+    terms.addAll(tokenize(book.getName()));
+    terms.addAll(tokenize(book.getAuthor()));
+    terms.addAll(tokenize(book.getGenre()));
+    for (String term : terms) {
+      postings.computeIfAbsent(term, t -> new ConcurrentSkipListSet<>()).add(book.getId());
+    }
+    termsById.put(book.getId(), terms);
+    dirty = true;
+  }
+
+  public synchronized void putAll(Iterable<Book> books) {
+    books.forEach(this::put);
+  }
+
+  public synchronized void remove(long id) {
+    removeTerms(id);
+    dirty = true;
+  }
+
+  /**
+   * Books matching every word of the query, by id, at most limit of them.
+   */
+  public List<Book> search(String query, int limit) {
+    List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+    if (words.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    List<Set<Long>> matches = words.stream()
+        .map(this::idsWithPrefix)
+        .sorted(Comparator.comparingInt(Set::size))
+        .collect(Collectors.toList());
+    Set<Long> smallest = matches.get(0);
+    List<Book> result = new ArrayList<>(limit);
+    List<Long> batch = new ArrayList<>(limit);
+    for (Long id : smallest) {
+      if (matches.stream().allMatch(ids -> ids.contains(id))) {
+        batch.add(id);
+        if (batch.size() == limit - result.size()) {
+          addRows(batch, result);
+          batch.clear();
+          if (result.size() == limit) {
+            return result;
+          }
+        }
+      }
+    }
+    addRows(batch, result);
+    return result;
+  }
+
+  // one query per batch of matching ids; an id whose row has been deleted
+  // since it was indexed is skipped and the next batch fills its place
+  private void addRows(List<Long> ids, List<Book> result) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    Map<Long, Book> rows = new HashMap<>();
+    bookRepository.findAllById(ids).forEach(book -> rows.put(book.getId(), book));
+    for (Long id : ids) {
+      Book book = rows.get(id);
+      if (book != null) {
+        result.add(book);
+      }
+    }
+  }
+
+  public static List<String> tokenize(String text) {
+    if (text == null) {
+      return List.of();
+    }
+    return Arrays.stream(NON_WORD.split(text.toLowerCase(Locale.ROOT)))
+        .filter(word -> !word.isEmpty())
+        .collect(Collectors.toList());
+  }
+
+  private Set<Long> idsWithPrefix(String prefix) {
+    Set<Long> ids = new TreeSet<>();
+    for (NavigableSet<Long> posting : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+      ids.addAll(posting);
+    }
+    return ids;
+  }
+
+  private void removeTerms(long id) {
+    Set<String> terms = termsById.remove(id);
+    if (terms == null) {
+      return;
+    }
+    for (String term : terms) {
+      postings.computeIfPresent(term, (t, ids) -> {
+        ids.remove(id);
+        return ids.isEmpty() ? null : ids;
+      });
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.bookSearch.saveDelay:PT10S}")
+  public void saveIfChanged() {
+    synchronized (saveLock) {
+      synchronized (this) {
+        if (!dirty) {
+          return;
+        }
+      }
+      // The file may only claim a marker that its postings are known to be
+      // complete for. Reading it before and after the snapshot and checking
+      // that no write reached the index meanwhile rules out a write committed
+      // around the snapshot; otherwise try again next time.
+      String before = bookRepository.changeMarker();
+      Map<String, List<Long>> terms = new LinkedHashMap<>();
+      synchronized (this) {
+        dirty = false;
+        postings.forEach((term, ids) -> terms.put(term, new ArrayList<>(ids)));
+      }
+      String after = bookRepository.changeMarker();
+      synchronized (this) {
+        if (!after.equals(before) || dirty) {
+          dirty = true;
+          return;
+        }
+      }
+      try {
+        writeIndex(after, terms);
+      } catch (IOException e) {
+        log.warn("Could not save book search index to {}", indexFile, e);
+        synchronized (this) {
+          dirty = true;
+        }
+      }
+    }
+  }
+
+  @PreDestroy
+  public void save() {
+    saveIfChanged();
+  }
+
+  private void writeIndex(String marker, Map<String, List<Long>> terms) throws IOException {
+    Path dir = indexFile.toAbsolutePath().getParent();
+    Files.createDirectories(dir);
+    Path tmp = Files.createTempFile(dir, "book-search", ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+      out.writeInt(FILE_FORMAT);
+      out.writeUTF(marker);
+      out.writeInt(terms.size());
+      for (Map.Entry<String, List<Long>> term : terms.entrySet()) {
+        out.writeUTF(term.getKey());
+        out.writeInt(term.getValue().size());
+        for (long id : term.getValue()) {
+          out.writeLong(id);
+        }
+      }
+    }
+    Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  // returns the change marker the postings were saved with, or null for a file
+  // in another format
+  private String readIndex() throws IOException {
+    postings.clear();
+    termsById.clear();
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+      if (in.readInt() != FILE_FORMAT) {
+        return null;
+      }
+      String marker = in.readUTF();
+      int termCount = in.readInt();
+      for (int i = 0; i < termCount; i++) {
+        String term = in.readUTF();
+        NavigableSet<Long> ids = new ConcurrentSkipListSet<>();
+        int idCount = in.readInt();
+        for (int j = 0; j < idCount; j++) {
+          long id = in.readLong();
+          ids.add(id);
+          termsById.computeIfAbsent(id, k -> new HashSet<>()).add(term);
+        }
+        postings.put(term, ids);
+      }
+      dirty = false;
+      return marker;
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.models.WordcountStatistics;
+import edu.ucsb.cs156.example.repositories.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Word count distribution of the books in each genre, kept as one
+ * HdrHistogram per genre (three significant digits, so quantiles are within
+ * 0.1%) and answered without reading the table.
+ *
+ * New books are recorded straight away. A histogram cannot forget a value,
+ * so an update or delete only marks its genre stale, and a background job
+ * rebuilds stale genres from the word counts in the table; until then the
+ * old figures are served. Books without a genre are counted under "".
+ *
+ * A book added while its genre is being rebuilt may or may not have been
+ * read by the rebuild, so the genre is marked stale again and rebuilt on the
+ * next run. Every genre is also rebuilt on a slower schedule, which bounds
+ * any other drift (for example from writes made outside the controller).
+ * Word counts are never negative; the controller rejects them, and rows
+ * with one written outside the app are left out.
+ */
+@Slf4j
+@Service("bookStatistics")
+public class BookStatisticsService {
+
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final BookRepository bookRepository;
+
+  // guarded by this
+  private final Map<String, Histogram> histograms = new HashMap<>();
+  // guarded by this; genres whose rebuild is reading the table
+  private final Set<String> rebuilding = new HashSet<>();
+
+  private final Set<String> stale = ConcurrentHashMap.newKeySet();
+
+  // held for a whole rebuild, so two rebuilds of one genre never overlap
+  private final Object rebuildLock = new Object();
+
+  public BookStatisticsService(BookRepository bookRepository) {
+    this.bookRepository = bookRepository;
+  }
+
+  @PostConstruct
+  public void load() {
+    synchronized (this) {
+      histograms.clear();
+    }
+    stale.clear();
+    bookRepository.findDistinctGenres().forEach(this::rebuild);
+  }
+
+  public void added(Book book) {
+    if (book.getWordcount() < 0) {
+      throw new IllegalArgumentException("negative wordcount " + book.getWordcount() + " for book " + book.getId());
+    }
+    String genre = genreOf(book);
+    synchronized (this) {
+      if (rebuilding.contains(genre)) {
+        stale.add(genre);
+      }
+      histograms.computeIfAbsent(genre, g -> newHistogram()).recordValue(book.getWordcount());
+    }
+  }
+
+  public void addedAll(Iterable<Book> books) {
+    books.forEach(this::added);
+  }
+
+  /**
+   * A book was updated or deleted; genres are the ones it had before and
+   * after the change (either may be the same, or null for a delete).
+   */
+  public void changed(String genreBefore, String genreAfter) {
+    stale.add(genreBefore == null ? "" : genreBefore);
+    stale.add(genreAfter == null ? "" : genreAfter);
+  }
+
+  @Scheduled(fixedDelayString = "${app.bookStatistics.rebuildDelay:PT30S}")
+  public void rebuildStale() {
+    for (String genre : List.copyOf(stale)) {
+      // cleared before reading, so a change made during the rebuild marks
+      // the genre stale again rather than being lost
+      stale.remove(genre);
+      rebuild(genre);
+    }
+  }
+
+  @Scheduled(
+      fixedDelayString = "${app.bookStatistics.rebuildAllDelay:PT1H}",
+      initialDelayString = "${app.bookStatistics.rebuildAllDelay:PT1H}")
+  public void rebuildAll() {
+    Set<String> genres = new HashSet<>(bookRepository.findDistinctGenres());
+    synchronized (this) {
+      // genres with no books left are rebuilt too, which drops them
+      genres.addAll(histograms.keySet());
+    }
+    genres.forEach(this::rebuild);
+  }
+
+  public List<WordcountStatistics> getStatistics() {
+    List<String> genres;
+    synchronized (this) {
+      genres = List.copyOf(histograms.keySet());
+    }
+    return genres.stream()
+        .sorted(Comparator.naturalOrder())
+        .map(this::getStatistics)
+        .filter(stats -> stats.getCount() > 0)
+        .collect(Collectors.toList());
+  }
+
+  public WordcountStatistics getStatistics(String genre) {
+    Histogram copy = newHistogram();
+    synchronized (this) {
+      Histogram histogram = histograms.get(genre == null ? "" : genre);
+      if (histogram != null) {
+        copy.add(histogram);
+      }
+    }
+    return WordcountStatistics.builder()
+        .genre(genre)
+        .count(copy.getTotalCount())
+        .min(copy.getTotalCount() == 0 ? 0 : copy.getMinValue())
+        .max(copy.getMaxValue())
+        .mean(copy.getMean())
+        .p50(copy.getValueAtPercentile(50.0))
+        .p90(copy.getValueAtPercentile(90.0))
+        .p99(copy.getValueAtPercentile(99.0))
+        .build();
+  }
+
+  // the swap happens under the same lock as added(), so a book is either
+  // recorded in the histogram being replaced (and its genre marked stale) or
+  // in the new one, never lost between the two
+  private void rebuild(String genre) {
+    synchronized (rebuildLock) {
+      rebuildUnderLock(genre);
+    }
+  }
+
+  private void rebuildUnderLock(String genre) {
+    synchronized (this) {
+      rebuilding.add(genre);
+    }
+    Histogram rebuilt = newHistogram();
+    int skipped = 0;
+    try {
+      for (Long wordcount : bookRepository.findWordcountsByGenre(genre)) {
+        if (wordcount < 0) {
+          skipped++;
+        } else {
+          rebuilt.recordValue(wordcount);
+        }
+      }
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        rebuilding.remove(genre);
+      }
+      stale.add(genre);
+      throw e;
+    }
+    synchronized (this) {
+      rebuilding.remove(genre);
+      if (rebuilt.getTotalCount() == 0) {
+        histograms.remove(genre);
+      } else {
+        histograms.put(genre, rebuilt);
+      }
+    }
+    if (skipped > 0) {
+      log.warn("Left {} books with a negative word count out of the statistics for genre '{}'", skipped, genre);
+    }
+    log.debug("Rebuilt word count statistics for genre '{}' from {} books", genre, rebuilt.getTotalCount());
+  }
+
+  private static String genreOf(Book book) {
+    return book.getGenre() == null ? "" : book.getGenre();
+  }
+
+  private static Histogram newHistogram() {
+    return new Histogram(SIGNIFICANT_DIGITS);
+  }
+}
@@ -2,16 +2,11 @@ package edu.ucsb.cs156.example.services;
 
 import edu.ucsb.cs156.example.entities.User;
 import edu.ucsb.cs156.example.models.CurrentUser;
-import edu.ucsb.cs156.example.repositories.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -24,64 +19,39 @@ import org.springframework.stereotype.Service;
 @Slf4j
 @Service("currentUser")
 public class CurrentUserServiceImpl extends CurrentUserService {
-  @Autowired
-  private UserRepository userRepository;
-
   @Autowired
   GrantedAuthoritiesService grantedAuthoritiesService;
 
-  @Value("${app.admin.emails}")
-  final private List<String> adminEmails = new ArrayList<String>();
-
   public CurrentUser getCurrentUser() {
     CurrentUser cu = CurrentUser.builder()
       .user(this.getUser())
       .roles(this.getRoles())
       .build();
-    log.info("getCurrentUser returns {}",cu);
+    log.debug("getCurrentUser returns {}",cu);
     return cu;
   }
 
-  
+  // The user row was resolved once at login by OAuth2LoginUserService,
+  // which stored its id and admin flag on the principal; everything else
+  // comes from the OAuth attributes, so no database lookup is needed here.
   public User getOAuth2AuthenticatedUser(SecurityContext securityContext, Authentication authentication) {
     OAuth2User oAuthUser = ((OAuth2AuthenticationToken) authentication).getPrincipal();
-    String email = oAuthUser.getAttribute("email");
-    String googleSub = oAuthUser.getAttribute("sub");
-    String pictureUrl = oAuthUser.getAttribute("picture");
-    String fullName = oAuthUser.getAttribute("name");
-    String givenName = oAuthUser.getAttribute("given_name");
-    String familyName = oAuthUser.getAttribute("family_name");
-    boolean emailVerified = oAuthUser.getAttribute("email_verified");
-    String locale = oAuthUser.getAttribute("locale");
-    String hostedDomain = oAuthUser.getAttribute("hd");
-
-    java.util.Map<java.lang.String,java.lang.Object> attrs = oAuthUser.getAttributes();
-    log.info("attrs={}",attrs);
-
-    Optional<User> ou = userRepository.findByEmail(email);
-    if (ou.isPresent()) {
-      User u = ou.get();
-      if (adminEmails.contains(email) && !u.getAdmin()) {
-        u.setAdmin(true);
-        userRepository.save(u);
-      }
-      return u;
-    }
+    Long id = oAuthUser.getAttribute(OAuth2LoginUserService.USER_ID_ATTRIBUTE);
+    Boolean admin = oAuthUser.getAttribute(OAuth2LoginUserService.ADMIN_ATTRIBUTE);
 
-    User u = User.builder()
-        .googleSub(googleSub)
-        .email(email)
-        .pictureUrl(pictureUrl)
-        .fullName(fullName)
-        .givenName(givenName)
-        .familyName(familyName)
-        .emailVerified(emailVerified)
-        .locale(locale)
-        .hostedDomain(hostedDomain)
-        .admin(adminEmails.contains(email))
+    return User.builder()
+        .id(id != null ? id : 0L)
+        .googleSub(oAuthUser.getAttribute("sub"))
+        .email(oAuthUser.getAttribute("email"))
+        .pictureUrl(oAuthUser.getAttribute("picture"))
+        .fullName(oAuthUser.getAttribute("name"))
+        .givenName(oAuthUser.getAttribute("given_name"))
+        .familyName(oAuthUser.getAttribute("family_name"))
+        .emailVerified(Boolean.TRUE.equals(oAuthUser.getAttribute("email_verified")))
+        .locale(oAuthUser.getAttribute("locale"))
+        .hostedDomain(oAuthUser.getAttribute("hd"))
+        .admin(Boolean.TRUE.equals(admin))
         .build();
-    userRepository.save(u);
-    return u;
   }
 
   public User getUser() {
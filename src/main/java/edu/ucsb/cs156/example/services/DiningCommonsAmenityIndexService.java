@@ -0,0 +1,148 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Bitset index over the amenity flags of the dining commons.
+ *
+ * Each commons is given a slot, and each amenity keeps the set of slots that
+ * have it, so a filter such as "take-out and dining cam" is a couple of word
+ * by word ANDs. Like {@link DiningCommonsLocatorService}, the index is loaded
+ * at startup and updated by the controller after each write; writers copy the
+ * bitsets, change them and publish the copy, so readers never lock.
+ */
+@Service("diningCommonsAmenities")
+public class DiningCommonsAmenityIndexService {
+
+  private final UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  // guarded by this
+  private final Map<String, Integer> slotByCode = new HashMap<>();
+  private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  public DiningCommonsAmenityIndexService(UCSBDiningCommonsRepository ucsbDiningCommonsRepository) {
+    this.ucsbDiningCommonsRepository = ucsbDiningCommonsRepository;
+  }
+
+  @PostConstruct
+  public synchronized void reload() {
+    slotByCode.clear();
+    freeSlots.clear();
+    Snapshot next = Snapshot.EMPTY.copy();
+    for (UCSBDiningCommons commons : ucsbDiningCommonsRepository.findAll()) {
+      next.set(slotFor(commons.getCode()), commons);
+    }
+    snapshot = next;
+  }
+
+  public synchronized void put(UCSBDiningCommons commons) {
+    Snapshot next = snapshot.copy();
+    next.set(slotFor(commons.getCode()), commons);
+    snapshot = next;
+  }
+
+  public synchronized void remove(String code) {
+    Integer slot = slotByCode.remove(code);
+    if (slot != null) {
+      freeSlots.push(slot);
+      Snapshot next = snapshot.copy();
+      next.clear(slot);
+      snapshot = next;
+    }
+  }
+
+  /**
+   * The commons matching every given flag, in slot order; a null flag
+   * matches either value.
+   */
+  public List<UCSBDiningCommons> filter(Boolean hasSackMeal, Boolean hasTakeOutMeal, Boolean hasDiningCam) {
+    Snapshot current = snapshot;
+    BitSet matches = (BitSet) current.present.clone();
+    current.restrict(matches, current.sackMeal, hasSackMeal);
+    current.restrict(matches, current.takeOutMeal, hasTakeOutMeal);
+    current.restrict(matches, current.diningCam, hasDiningCam);
+
+    List<UCSBDiningCommons> result = new ArrayList<>(matches.cardinality());
+    for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+      result.add(current.commons[slot]);
+    }
+    return result;
+  }
+
+  private int slotFor(String code) {
+    return slotByCode.computeIfAbsent(code, c -> freeSlots.isEmpty() ? slotByCode.size() : freeSlots.pop());
+  }
+
+  // Published snapshots are never changed; set and clear are only called on
+  // a fresh copy, before it is published.
+  private static final class Snapshot {
+    static final Snapshot EMPTY = new Snapshot(new BitSet(), new BitSet(), new BitSet(), new BitSet(),
+        new UCSBDiningCommons[0]);
+
+    final BitSet present;
+    final BitSet sackMeal;
+    final BitSet takeOutMeal;
+    final BitSet diningCam;
+    UCSBDiningCommons[] commons;
+
+    private Snapshot(BitSet present, BitSet sackMeal, BitSet takeOutMeal, BitSet diningCam,
+        UCSBDiningCommons[] commons) {
+      this.present = present;
+      this.sackMeal = sackMeal;
+      this.takeOutMeal = takeOutMeal;
+      this.diningCam = diningCam;
+      this.commons = commons;
+    }
+
+    Snapshot copy() {
+      return new Snapshot((BitSet) present.clone(), (BitSet) sackMeal.clone(), (BitSet) takeOutMeal.clone(),
+          (BitSet) diningCam.clone(), commons.clone());
+    }
+
+    void set(int slot, UCSBDiningCommons c) {
+      if (slot >= commons.length) {
+        commons = Arrays.copyOf(commons, Math.max(slot + 1, commons.length * 2));
+      }
+      present.set(slot);
+      sackMeal.set(slot, c.getHasSackMeal());
+      takeOutMeal.set(slot, c.getHasTakeOutMeal());
+      diningCam.set(slot, c.getHasDiningCam());
+      commons[slot] = c;
+    }
+
+    void clear(int slot) {
+      present.clear(slot);
+      sackMeal.clear(slot);
+      takeOutMeal.clear(slot);
+      diningCam.clear(slot);
+      commons[slot] = null;
+    }
+
+    void restrict(BitSet matches, BitSet amenity, Boolean wanted) {
+      if (wanted == null) {
+        return;
+      }
+      if (wanted) {
+        matches.and(amenity);
+      } else {
+        matches.andNot(amenity);
+      }
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory k-d tree over the coordinates of the dining commons, answering
+ * k-nearest queries without touching the table.
+ *
+ * Points are stored as unit vectors on the sphere, so straight-line distance
+ * between them orders the same way as great-circle distance and the tree can
+ * prune exactly. The index is loaded once at startup and then kept current by
+ * the controller after each create, update or delete; a write rebuilds the
+ * (small) balanced tree from the in-memory copy and publishes it, so readers
+ * never take a lock and never see a half-built tree.
+ */
+@Service("diningCommonsLocator")
+public class DiningCommonsLocatorService {
+
+  private final UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  // guarded by this
+  private final Map<String, UCSBDiningCommons> commonsByCode = new HashMap<>();
+
+  private volatile KdTree tree = KdTree.build(List.of());
+
+  public DiningCommonsLocatorService(UCSBDiningCommonsRepository ucsbDiningCommonsRepository) {
+    this.ucsbDiningCommonsRepository = ucsbDiningCommonsRepository;
+  }
+
+  @PostConstruct
+  public synchronized void reload() {
+    commonsByCode.clear();
+    for (UCSBDiningCommons commons : ucsbDiningCommonsRepository.findAll()) {
+      commonsByCode.put(commons.getCode(), commons);
+    }
+    publish();
+  }
+
+  public synchronized void put(UCSBDiningCommons commons) {
+    commonsByCode.put(commons.getCode(), commons);
+    publish();
+  }
+
+  public synchronized void remove(String code) {
+    if (commonsByCode.remove(code) != null) {
+      publish();
+    }
+  }
+
+  /**
+   * The k commons closest to the given point, nearest first. Commons without
+   * coordinates are never returned.
+   */
+  public List<UCSBDiningCommons> nearest(double latitude, double longitude, int k) {
+    return tree.nearest(toPoint(latitude, longitude), k);
+  }
+
+  private void publish() {
+    tree = KdTree.build(commonsByCode.values());
+  }
+
+  static double[] toPoint(double latitude, double longitude) {
+    double lat = Math.toRadians(latitude);
+    double lon = Math.toRadians(longitude);
+    return new double[] {
+        Math.cos(lat) * Math.cos(lon),
+        Math.cos(lat) * Math.sin(lon),
+        Math.sin(lat)
+    };
+  }
+
+  /**
+   * Immutable balanced 3-d tree, stored implicitly: the node for a range of
+   * the arrays is its middle element, with the lower and upper halves as its
+   * children, split on axis depth % 3.
+   */
+  static final class KdTree {
+    private final double[][] points;
+    private final UCSBDiningCommons[] commons;
+
+    private KdTree(double[][] points, UCSBDiningCommons[] commons) {
+      this.points = points;
+      this.commons = commons;
+    }
+
+    static KdTree build(Iterable<UCSBDiningCommons> all) {
+      List<Node> nodes = new ArrayList<>();
+      for (UCSBDiningCommons c : all) {
+        if (c.getLatitude() != null && c.getLongitude() != null) {
+          nodes.add(new Node(toPoint(c.getLatitude(), c.getLongitude()), c));
+        }
+      }
+      Node[] sorted = nodes.toArray(new Node[0]);
+      arrange(sorted, 0, sorted.length, 0);
+      return new KdTree(
+          Arrays.stream(sorted).map(Node::point).toArray(double[][]::new),
+          Arrays.stream(sorted).map(Node::commons).toArray(UCSBDiningCommons[]::new));
+    }
+
+    private static void arrange(Node[] nodes, int from, int to, int depth) {
+      if (to - from <= 1) {
+        return;
+      }
+      int axis = depth % 3;
+      Arrays.sort(nodes, from, to, Comparator.comparingDouble(n -> n.point()[axis]));
+      int mid = (from + to) >>> 1;
+      arrange(nodes, from, mid, depth + 1);
+      arrange(nodes, mid + 1, to, depth + 1);
+    }
+
+    List<UCSBDiningCommons> nearest(double[] target, int k) {
+      if (k <= 0 || points.length == 0) {
+        return List.of();
+      }
+      // max-heap on distance, holding the best k found so far
+      PriorityQueue<Candidate> best = new PriorityQueue<>(
+          Comparator.comparingDouble(Candidate::distance).reversed());
+      search(target, k, 0, points.length, 0, best);
+      Candidate[] found = best.toArray(new Candidate[0]);
+      Arrays.sort(found, Comparator.comparingDouble(Candidate::distance));
+      List<UCSBDiningCommons> result = new ArrayList<>(found.length);
+      for (Candidate candidate : found) {
+        result.add(commons[candidate.index()]);
+      }
+      return result;
+    }
+
+    private void search(double[] target, int k, int from, int to, int depth, PriorityQueue<Candidate> best) {
+      if (from >= to) {
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      double[] point = points[mid];
+      double distance = squaredDistance(target, point);
+      if (best.size() < k) {
+        best.add(new Candidate(mid, distance));
+      } else if (distance < best.peek().distance()) {
+        best.poll();
+        best.add(new Candidate(mid, distance));
+      }
+
+      int axis = depth % 3;
+      double delta = target[axis] - point[axis];
+      boolean lowerFirst = delta < 0;
+      if (lowerFirst) {
+        search(target, k, from, mid, depth + 1, best);
+      } else {
+        search(target, k, mid + 1, to, depth + 1, best);
+      }
+      // the far side can only help if the splitting plane is closer than the
+      // worst of the current best k
+      if (best.size() < k || delta * delta < best.peek().distance()) {
+        if (lowerFirst) {
+          search(target, k, mid + 1, to, depth + 1, best);
+        } else {
+          search(target, k, from, mid, depth + 1, best);
+        }
+      }
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+      double dx = a[0] - b[0];
+      double dy = a[1] - b[1];
+      double dz = a[2] - b[2];
+      return dx * dx + dy * dy + dz * dz;
+    }
+
+    private record Node(double[] point, UCSBDiningCommons commons) {
+    }
+
+    private record Candidate(int index, double distance) {
+    }
+  }
+}
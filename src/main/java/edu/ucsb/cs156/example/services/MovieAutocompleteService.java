@@ -0,0 +1,251 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.Movie;
+import edu.ucsb.cs156.example.repositories.MovieRepository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Title typeahead for movies, answered from an in-memory radix trie.
+ *
+ * Titles are normalized (accents stripped, lower-cased, runs of punctuation
+ * and spaces collapsed to one space) and stored in a trie whose edges carry
+ * whole substrings, so a chain of single-child nodes takes one node. Every
+ * node also keeps the first TOP_K movies of its subtree in title order, so a
+ * lookup is a walk down the prefix and never visits the subtree below it.
+ *
+ * Nodes are immutable: a write copies the nodes on the path it changes and
+ * publishes a new root, so readers never lock. Writers are serialized and
+ * kept current by the controller after each write.
+ */
+@Service("movieAutocomplete")
+public class MovieAutocompleteService {
+
+  /** Most suggestions kept per node, and so the most a lookup returns. */
+  public static final int TOP_K = 20;
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+  private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key)
+      .thenComparingLong(e -> e.movie().getId());
+
+  private final MovieRepository movieRepository;
+
+  private volatile Node root = Node.EMPTY;
+
+  // guarded by this
+  private final Map<Long, String> keyById = new HashMap<>();
+
+  public MovieAutocompleteService(MovieRepository movieRepository) {
+    this.movieRepository = movieRepository;
+  }
+
+  @PostConstruct
+  public synchronized void reload() {
+    root = Node.EMPTY;
+    keyById.clear();
+    movieRepository.findAll().forEach(this::put);
+  }
+
+  public synchronized void put(Movie movie) {
+    Node next = root;
+    String previous = keyById.remove(movie.getId());
+    if (previous != null) {
+      next = next.remove(previous, movie.getId());
+    }
+    String key = normalize(movie.getName());
+    if (!key.isEmpty()) {
+      keyById.put(movie.getId(), key);
+      next = next.insert(key, new Entry(key, movie));
+    }
+    root = next;
+  }
+
+  public synchronized void putAll(Iterable<Movie> movies) {
+    movies.forEach(this::put);
+  }
+
+  public synchronized void remove(long id) {
+    String key = keyById.remove(id);
+    if (key != null) {
+      root = root.remove(key, id);
+    }
+  }
+
+  /**
+   * Movies whose normalized title starts with the normalized prefix, in title
+   * order, at most min(limit, TOP_K) of them.
+   */
+  public List<Movie> complete(String prefix, int limit) {
+    // a trailing space is kept, so "the " no longer matches "thelma"
+    String rest = fold(prefix).stripLeading();
+    Node node = root;
+    while (!rest.isEmpty()) {
+      Node child = node.children.get(rest.charAt(0));
+      if (child == null) {
+        return List.of();
+      }
+      if (child.label.startsWith(rest)) {
+        node = child;
+        break;
+      }
+      if (!rest.startsWith(child.label)) {
+        return List.of();
+      }
+      rest = rest.substring(child.label.length());
+      node = child;
+    }
+    return node.top.stream()
+        .limit(Math.max(0, Math.min(limit, TOP_K)))
+        .map(Entry::movie)
+        .collect(Collectors.toList());
+  }
+
+  public static String normalize(String title) {
+    return fold(title).trim();
+  }
+
+  private static String fold(String text) {
+    if (text == null) {
+      return "";
+    }
+    String unaccented = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+    return NON_WORD.matcher(unaccented.toLowerCase(Locale.ROOT)).replaceAll(" ");
+  }
+
+  private record Entry(String key, Movie movie) {
+  }
+
+  private static final class Node {
+    static final Node EMPTY = new Node("", List.of(), Collections.emptyNavigableMap());
+
+    final String label;
+    // movies whose whole key ends at this node
+    final List<Entry> entries;
+    final NavigableMap<Character, Node> children;
+    final List<Entry> top;
+
+    Node(String label, List<Entry> entries, NavigableMap<Character, Node> children) {
+      this.label = label;
+      this.entries = entries;
+      this.children = children;
+      this.top = top(entries, children);
+    }
+
+    // keys ending here sort before every key below, and the children cover
+    // disjoint ranges in character order, so concatenating is already sorted
+    private static List<Entry> top(List<Entry> entries, NavigableMap<Character, Node> children) {
+      List<Entry> top = new ArrayList<>(TOP_K);
+      for (Entry entry : entries) {
+        if (top.size() == TOP_K) {
+          return top;
+        }
+        top.add(entry);
+      }
+      for (Node child : children.values()) {
+        for (Entry entry : child.top) {
+          if (top.size() == TOP_K) {
+            return top;
+          }
+          top.add(entry);
+        }
+      }
+      return top;
+    }
+
+    Node withLabel(String label) {
+      return new Node(label, entries, children);
+    }
+
+    Node withChild(char c, Node child) {
+      NavigableMap<Character, Node> copy = new TreeMap<>(children);
+      if (child == null) {
+        copy.remove(c);
+      } else {
+        copy.put(c, child);
+      }
+      return new Node(label, entries, copy);
+    }
+
+    /** Copy of this node with the entry added under the rest of its key. */
+    Node insert(String rest, Entry entry) {
+      if (rest.isEmpty()) {
+        List<Entry> copy = new ArrayList<>(entries);
+        copy.add(entry);
+        copy.sort(ORDER);
+        return new Node(label, copy, children);
+      }
+      char c = rest.charAt(0);
+      Node child = children.get(c);
+      if (child == null) {
+        return withChild(c, new Node(rest, List.of(entry), Collections.emptyNavigableMap()));
+      }
+      int common = commonPrefix(child.label, rest);
+      if (common < child.label.length()) {
+        NavigableMap<Character, Node> below = new TreeMap<>();
+        below.put(child.label.charAt(common), child.withLabel(child.label.substring(common)));
+        child = new Node(child.label.substring(0, common), List.of(), below);
+      }
+      return withChild(c, child.insert(rest.substring(common), entry));
+    }
+
+    /**
+     * Copy of this node without the movie under the rest of its key, or null
+     * when nothing is left below it.
+     */
+    Node remove(String rest, long id) {
+      if (rest.isEmpty()) {
+        List<Entry> kept = entries.stream()
+            .filter(e -> e.movie().getId() != id)
+            .collect(Collectors.toList());
+        return compact(new Node(label, kept, children));
+      }
+      char c = rest.charAt(0);
+      Node child = children.get(c);
+      if (child == null || !rest.startsWith(child.label)) {
+        return this;
+      }
+      return compact(withChild(c, child.remove(rest.substring(child.label.length()), id)));
+    }
+
+    // the root always stays, even when empty
+    private Node compact(Node node) {
+      if (node.label.isEmpty() || !node.entries.isEmpty()) {
+        return node;
+      }
+      if (node.children.isEmpty()) {
+        return null;
+      }
+      if (node.children.size() == 1) {
+        Node only = node.children.firstEntry().getValue();
+        return only.withLabel(node.label + only.label);
+      }
+      return node;
+    }
+
+    private static int commonPrefix(String a, String b) {
+      int n = Math.min(a.length(), b.length());
+      int i = 0;
+      while (i < n && a.charAt(i) == b.charAt(i)) {
+        i++;
+      }
+      return i;
+    }
+  }
+}
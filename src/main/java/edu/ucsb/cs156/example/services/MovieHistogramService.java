@@ -0,0 +1,87 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.Movie;
+import edu.ucsb.cs156.example.models.GenreYearCount;
+import edu.ucsb.cs156.example.repositories.MovieRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Number of movies per (genre, year), kept in memory so the histogram
+ * endpoint never reads the movies table.
+ *
+ * The controller adjusts the counts after each write; they are kept in a
+ * {@link StripedCounts}. A periodic job recounts the table with one GROUP BY
+ * and corrects any cell that has drifted (e.g. from writes that bypassed the
+ * controller). Movies without a genre are counted under "".
+ */
+@Slf4j
+@Service("movieHistogram")
+public class MovieHistogramService {
+
+  private final MovieRepository movieRepository;
+
+  private final StripedCounts<Cell> counts = new StripedCounts<>();
+
+  public MovieHistogramService(MovieRepository movieRepository) {
+    this.movieRepository = movieRepository;
+  }
+
+  public void added(Movie movie) {
+    counts.increment(cellOf(movie.getGenre(), movie.getYear()));
+  }
+
+  public void addedAll(Iterable<Movie> movies) {
+    movies.forEach(this::added);
+  }
+
+  public void removed(Movie movie) {
+    counts.decrement(cellOf(movie.getGenre(), movie.getYear()));
+  }
+
+  public void changed(String genreBefore, int yearBefore, Movie after) {
+    counts.decrement(cellOf(genreBefore, yearBefore));
+    added(after);
+  }
+
+  public List<GenreYearCount> getHistogram() {
+    return counts.snapshot().entrySet().stream()
+        .map(e -> GenreYearCount.builder()
+            .genre(e.getKey().genre())
+            .year(e.getKey().year())
+            .count(e.getValue())
+            .build())
+        .sorted(Comparator.comparing(GenreYearCount::getGenre).thenComparingInt(GenreYearCount::getYear))
+        .collect(Collectors.toList());
+  }
+
+  @PostConstruct
+  @Scheduled(fixedDelayString = "${app.movieHistogram.reconcileDelay:PT10M}")
+  public void reconcile() {
+    Map<Cell, Long> actual = new HashMap<>();
+    for (Object[] row : movieRepository.countByGenreAndYear()) {
+      actual.put(new Cell((String) row[0], ((Number) row[1]).intValue()), ((Number) row[2]).longValue());
+    }
+    int corrected = counts.reconcile(actual);
+    if (corrected > 0) {
+      log.info("Corrected {} genre/year movie counts", corrected);
+    }
+  }
+
+  private static Cell cellOf(String genre, int year) {
+    return new Cell(genre == null ? "" : genre, year);
+  }
+
+  private record Cell(String genre, int year) {
+  }
+}
@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves (or creates) the {@link User} row for an OAuth2 login exactly once,
+ * at login time, and attaches its id and admin flag to the authenticated
+ * principal, together with the ROLE_ADMIN / ROLE_MEMBER authorities.
+ *
+ * Later requests read the user back from the security context
+ * (see {@link CurrentUserServiceImpl}) without touching the database.
+ */
+@Slf4j
+@Service("oauth2LoginUserService")
+public class OAuth2LoginUserService extends DefaultOAuth2UserService {
+
+  public static final String USER_ID_ATTRIBUTE = "app_user_id";
+  public static final String ADMIN_ATTRIBUTE = "app_admin";
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private UserCacheService userCache;
+
+  @Value("${app.admin.emails}")
+  private Set<String> adminEmails = new HashSet<>();
+
+  @Override
+  public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
+    OAuth2User oAuthUser = super.loadUser(userRequest);
+    String nameAttributeKey = userRequest.getClientRegistration().getProviderDetails()
+        .getUserInfoEndpoint().getUserNameAttributeName();
+    return hydrate(oAuthUser, nameAttributeKey);
+  }
+
+  public OAuth2User hydrate(OAuth2User oAuthUser, String nameAttributeKey) {
+    String email = oAuthUser.getAttribute("email");
+    String googleSub = oAuthUser.getAttribute("sub");
+
+    // always upsert, so profile and admin changes are seen at every login
+    User user = upsertUser(oAuthUser);
+    userCache.put(UserCacheService.keyFor(googleSub, email), user);
+
+    Set<GrantedAuthority> authorities = new HashSet<>(oAuthUser.getAuthorities());
+    if (user.getAdmin()) {
+      authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    }
+    if (email != null && email.endsWith("@ucsb.edu")) {
+      authorities.add(new SimpleGrantedAuthority("ROLE_MEMBER"));
+    }
+
+    Map<String, Object> attributes = new HashMap<>(oAuthUser.getAttributes());
+    attributes.put(USER_ID_ATTRIBUTE, user.getId());
+    attributes.put(ADMIN_ATTRIBUTE, user.getAdmin());
+
+    log.info("login: email={} id={} authorities={}", email, user.getId(), authorities);
+    return new DefaultOAuth2User(authorities, attributes, nameAttributeKey);
+  }
+
+  private User upsertUser(OAuth2User oAuthUser) {
+    String email = oAuthUser.getAttribute("email");
+
+    User u = User.builder()
+        .googleSub(oAuthUser.getAttribute("sub"))
+        .email(email)
+        .pictureUrl(oAuthUser.getAttribute("picture"))
+        .fullName(oAuthUser.getAttribute("name"))
+        .givenName(oAuthUser.getAttribute("given_name"))
+        .familyName(oAuthUser.getAttribute("family_name"))
+        .emailVerified(Boolean.TRUE.equals(oAuthUser.getAttribute("email_verified")))
+        .locale(oAuthUser.getAttribute("locale"))
+        .hostedDomain(oAuthUser.getAttribute("hd"))
+        .admin(adminEmails.contains(email))
+        .build();
+    return userRepository.upsertByEmail(u);
+  }
+}
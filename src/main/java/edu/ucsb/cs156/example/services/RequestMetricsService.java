@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.HandlerLatencyStatistics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Per-handler latency histograms, in-flight counts and error counts,
+ * recorded by {@link edu.ucsb.cs156.example.aop.LoggingAspect}.
+ *
+ * Recording is lock-free (HdrHistogram {@link Recorder} plus atomic
+ * counters); only reading the statistics takes a per-handler lock.
+ */
+@Service("requestMetrics")
+public class RequestMetricsService {
+
+  // one hour, in microseconds; slower calls are clamped to this
+  private static final long HIGHEST_TRACKABLE_MICROS = 3_600_000_000L;
+
+  private final ConcurrentMap<String, HandlerRecorder> recorders = new ConcurrentHashMap<>();
+
+  public HandlerRecorder recorderFor(String handler) {
+    return recorders.computeIfAbsent(handler, HandlerRecorder::new);
+  }
+
+  public List<HandlerLatencyStatistics> getStatistics() {
+    return recorders.values().stream()
+        .map(HandlerRecorder::snapshot)
+        .sorted(Comparator.comparing(HandlerLatencyStatistics::getHandler))
+        .collect(Collectors.toList());
+  }
+
+  public static class HandlerRecorder {
+    private final String handler;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 2);
+    private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 2);
+    private final AtomicLong inFlight = new AtomicLong();
+    private final LongAdder errors = new LongAdder();
+
+    HandlerRecorder(String handler) {
+      this.handler = handler;
+    }
+
+    public void start() {
+      inFlight.incrementAndGet();
+    }
+
+    public void stop(long elapsedNanos, boolean failed) {
+      inFlight.decrementAndGet();
+      if (failed) {
+        errors.increment();
+      }
+      long micros = Math.max(1, Math.min(elapsedNanos / 1_000, HIGHEST_TRACKABLE_MICROS));
+      recorder.recordValue(micros);
+    }
+
+    synchronized HandlerLatencyStatistics snapshot() {
+      total.add(recorder.getIntervalHistogram());
+      long count = total.getTotalCount();
+      long errorCount = errors.sum();
+      return HandlerLatencyStatistics.builder()
+          .handler(handler)
+          .count(count)
+          .errorCount(errorCount)
+          .errorRate(count == 0 ? 0.0 : (double) errorCount / count)
+          .inFlight(inFlight.get())
+          .meanMicros(total.getMean())
+          .p50Micros(total.getValueAtPercentile(50.0))
+          .p95Micros(total.getValueAtPercentile(95.0))
+          .p99Micros(total.getValueAtPercentile(99.0))
+          .maxMicros(total.getMaxValue())
+          .build();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.CacheStatistics;
+
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Reports on the Hibernate second-level and query cache regions.
+ *
+ * Hit and miss counts come from Hibernate's statistics; the region size and
+ * eviction count come from the Caffeine cache behind each JCache region,
+ * since Hibernate does not track them for JCache.
+ */
+@Service("secondLevelCache")
+public class SecondLevelCacheService {
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  public List<CacheStatistics> getStatistics() {
+    SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    Statistics statistics = sessionFactory.getStatistics();
+    CacheManager cacheManager = sessionFactory.getCache().getRegionFactory() instanceof JCacheRegionFactory jcache
+        ? jcache.getCacheManager()
+        : null;
+
+    List<CacheStatistics> result = new ArrayList<>();
+    // the query results region is not among the second-level region names
+    TreeSet<String> regions = new TreeSet<>(List.of(statistics.getSecondLevelCacheRegionNames()));
+    regions.add(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+    for (String region : regions) {
+      CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+      if (regionStatistics == null) {
+        continue;
+      }
+      long hits = regionStatistics.getHitCount();
+      long misses = regionStatistics.getMissCount();
+      com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine = caffeineCache(cacheManager, region);
+      result.add(CacheStatistics.builder()
+          .name("hibernate:" + region)
+          .size(caffeine == null ? 0 : caffeine.estimatedSize())
+          .hitCount(hits)
+          .missCount(misses)
+          .hitRate(hits + misses == 0 ? 1.0 : (double) hits / (hits + misses))
+          .evictionCount(caffeine == null ? 0 : caffeine.stats().evictionCount())
+          .build());
+    }
+    return result;
+  }
+
+  private static com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache(CacheManager cacheManager, String region) {
+    if (cacheManager == null) {
+      return null;
+    }
+    Cache<Object, Object> cache = cacheManager.getCache(region);
+    if (cache == null) {
+      return null;
+    }
+    try {
+      return cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
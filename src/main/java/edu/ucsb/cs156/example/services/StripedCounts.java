@@ -0,0 +1,73 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory counts by key, moved by writers as rows come and go and brought
+ * back in line with a recount of the table now and then.
+ *
+ * Each key's count is a {@link LongAdder}, so concurrent writers of the same
+ * key do not contend on one word. Keys must not be null.
+ */
+public class StripedCounts<K> {
+
+  private final ConcurrentMap<K, LongAdder> counts = new ConcurrentHashMap<>();
+
+  public void increment(K key) {
+    counterFor(key).increment();
+  }
+
+  public void decrement(K key) {
+    counterFor(key).decrement();
+  }
+
+  /** Every key whose count is above zero, with its count. */
+  public Map<K, Long> snapshot() {
+    Map<K, Long> snapshot = new HashMap<>();
+    counts.forEach((key, counter) -> {
+      long count = counter.sum();
+      if (count > 0) {
+        snapshot.put(key, count);
+      }
+    });
+    return snapshot;
+  }
+
+  /**
+   * Sets every count to the one recounted from the table, a key missing from
+   * the recount to zero, and returns how many counts had drifted.
+   */
+  public int reconcile(Map<K, Long> actual) {
+    int corrected = 0;
+    for (K key : counts.keySet()) {
+      corrected += correct(key, actual.getOrDefault(key, 0L));
+    }
+    for (Map.Entry<K, Long> entry : actual.entrySet()) {
+      if (!counts.containsKey(entry.getKey())) {
+        corrected += correct(entry.getKey(), entry.getValue());
+      }
+    }
+    return corrected;
+  }
+
+  // adds the difference rather than resetting the adder, so a write landing
+  // between the recount and this add is off by one until the next
+  // reconcile, never lost
+  private int correct(K key, long actual) {
+    LongAdder counter = counterFor(key);
+    long drift = actual - counter.sum();
+    if (drift == 0) {
+      return 0;
+    }
+    counter.add(drift);
+    return 1;
+  }
+
+  private LongAdder counterFor(K key) {
+    return counts.computeIfAbsent(key, k -> new LongAdder());
+  }
+}
@@ -0,0 +1,42 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory modification version for each entity table, used as the ETag of
+ * the GET endpoints that read it.
+ *
+ * Controllers bump a table's version after every create, update or delete
+ * they commit, and read the version before querying, so a response is never
+ * labelled with a version newer than the data in it. The ETag also carries
+ * the time this instance started, so tags handed out before a restart can
+ * never match; versions are not shared between instances, so this assumes
+ * all writes go through the one running app.
+ */
+@Service("tableVersions")
+public class TableVersionService {
+
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+  private final ConcurrentMap<Class<?>, AtomicLong> versions = new ConcurrentHashMap<>();
+
+  private AtomicLong versionOf(Class<?> table) {
+    return versions.computeIfAbsent(table, t -> new AtomicLong());
+  }
+
+  public long getVersion(Class<?> table) {
+    return versionOf(table).get();
+  }
+
+  public void bump(Class<?> table) {
+    versionOf(table).incrementAndGet();
+  }
+
+  public String etag(Class<?> table) {
+    return "\"%s-%s-%d\"".formatted(table.getSimpleName(), epoch, getVersion(table));
+  }
+}
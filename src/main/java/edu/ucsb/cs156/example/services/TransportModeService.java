@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.TransportMode;
+import edu.ucsb.cs156.example.repositories.TransportModeRepository;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory copy of the transport mode dictionary, so that encoding a mode
+ * on write and resolving one for a lookup do not read the table.
+ *
+ * The whole dictionary is loaded at startup; a mode not seen before is added
+ * to the table the first time a transport is saved with it. Writers are
+ * serialized so two requests with a new mode do not both insert it; when
+ * another instance inserts the same mode first, the unique name constraint
+ * rejects this insert and that instance's row is used instead.
+ */
+@Service("transportModes")
+public class TransportModeService {
+
+  private final TransportModeRepository transportModeRepository;
+
+  private final ConcurrentMap<String, TransportMode> byName = new ConcurrentHashMap<>();
+
+  public TransportModeService(TransportModeRepository transportModeRepository) {
+    this.transportModeRepository = transportModeRepository;
+  }
+
+  @PostConstruct
+  public synchronized void reload() {
+    byName.clear();
+    transportModeRepository.findAll().forEach(mode -> byName.put(mode.getName(), mode));
+  }
+
+  /**
+   * The dictionary entry for a mode, added if it is new; null for no mode.
+   */
+  public TransportMode encode(String name) {
+    if (name == null) {
+      return null;
+    }
+    TransportMode mode = byName.get(name);
+    return mode != null ? mode : add(name);
+  }
+
+  /**
+   * The dictionary entry for a mode, if any transport has ever used it.
+   */
+  public Optional<TransportMode> find(String name) {
+    TransportMode mode = byName.get(name);
+    if (mode != null) {
+      return Optional.of(mode);
+    }
+    // another instance may have added it since this one loaded
+    Optional<TransportMode> stored = transportModeRepository.findByName(name);
+    stored.ifPresent(m -> byName.putIfAbsent(m.getName(), m));
+    return stored;
+  }
+
+  private synchronized TransportMode add(String name) {
+    TransportMode mode = byName.get(name);
+    if (mode == null) {
+      mode = transportModeRepository.findByName(name)
+          .orElseGet(() -> insert(name));
+      byName.put(mode.getName(), mode);
+    }
+    return mode;
+  }
+
+  private TransportMode insert(String name) {
+    try {
+      return transportModeRepository.save(TransportMode.builder().name(name.intern()).build());
+    } catch (DataIntegrityViolationException e) {
+      // another instance added it between the lookup and the insert
+      return transportModeRepository.findByName(name).orElseThrow(() -> e);
+    }
+  }
+}
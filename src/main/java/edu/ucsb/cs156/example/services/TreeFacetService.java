@@ -0,0 +1,126 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.Tree;
+import edu.ucsb.cs156.example.entities.TreeCategory;
+import edu.ucsb.cs156.example.models.CategoryCount;
+import edu.ucsb.cs156.example.models.TreeCategoryFacet;
+import edu.ucsb.cs156.example.repositories.TreeRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Number of trees per category string, for browsing by category without
+ * grouping the whole table on each request.
+ *
+ * TreeController moves the counts after each create, update and delete; they
+ * are kept in a {@link StripedCounts}. The table is recounted at startup and
+ * every app.treeFacets.reconcileDelay, and any count that disagrees is
+ * corrected. Trees without a category are counted under "".
+ */
+@Slf4j
+@Service("treeFacets")
+public class TreeFacetService {
+
+  private final TreeRepository treeRepository;
+
+  private final StripedCounts<String> counts = new StripedCounts<>();
+
+  public TreeFacetService(TreeRepository treeRepository) {
+    this.treeRepository = treeRepository;
+  }
+
+  public void added(Tree tree) {
+    counts.increment(categoryOf(tree.getCategory()));
+  }
+
+  public void addedAll(Iterable<Tree> trees) {
+    trees.forEach(this::added);
+  }
+
+  public void removed(Tree tree) {
+    counts.decrement(categoryOf(tree.getCategory()));
+  }
+
+  public void changed(String categoryBefore, Tree after) {
+    counts.decrement(categoryOf(categoryBefore));
+    added(after);
+  }
+
+  public List<CategoryCount> getFacets() {
+    return counts.snapshot().entrySet().stream()
+        .map(e -> CategoryCount.builder().category(e.getKey()).count(e.getValue()).build())
+        .sorted(Comparator.comparing(CategoryCount::getCategory))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Every category, by name, with the number of trees in it or in any
+   * category below it. The counts come from the in-memory counts by
+   * category string, summed up the hierarchy, so only the (small) list of
+   * categories is read, never the trees.
+   */
+  public List<TreeCategoryFacet> getCategoryFacets(Iterable<TreeCategory> categories) {
+    Map<String, Long> byName = counts.snapshot();
+    Map<Long, List<TreeCategory>> children = new HashMap<>();
+    List<TreeCategory> all = new ArrayList<>();
+    for (TreeCategory category : categories) {
+      all.add(category);
+      if (category.getParentId() != null) {
+        children.computeIfAbsent(category.getParentId(), id -> new ArrayList<>()).add(category);
+      }
+    }
+    Map<Long, Long> totals = new HashMap<>();
+    return all.stream()
+        .map(c -> TreeCategoryFacet.builder()
+            .id(c.getId())
+            .name(c.getName())
+            .parentId(c.getParentId())
+            .count(subtreeCount(c, byName, children, totals))
+            .build())
+        .sorted(Comparator.comparing(TreeCategoryFacet::getName))
+        .collect(Collectors.toList());
+  }
+
+  // the hierarchy never has cycles (moveCategory refuses them)
+  private static long subtreeCount(TreeCategory category, Map<String, Long> byName,
+      Map<Long, List<TreeCategory>> children, Map<Long, Long> totals) {
+    Long known = totals.get(category.getId());
+    if (known != null) {
+      return known;
+    }
+    long total = byName.getOrDefault(category.getName(), 0L);
+    for (TreeCategory child : children.getOrDefault(category.getId(), List.of())) {
+      total += subtreeCount(child, byName, children, totals);
+    }
+    totals.put(category.getId(), total);
+    return total;
+  }
+
+  @PostConstruct
+  @Scheduled(fixedDelayString = "${app.treeFacets.reconcileDelay:PT10M}")
+  public void reconcile() {
+    Map<String, Long> actual = new HashMap<>();
+    for (Object[] row : treeRepository.countByCategory()) {
+      actual.put((String) row[0], ((Number) row[1]).longValue());
+    }
+    int corrected = counts.reconcile(actual);
+    if (corrected > 0) {
+      log.info("Corrected {} tree category counts", corrected);
+    }
+  }
+
+  private static String categoryOf(String category) {
+    return category == null ? "" : category;
+  }
+}
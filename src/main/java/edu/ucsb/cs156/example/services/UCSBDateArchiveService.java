@@ -0,0 +1,62 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Moves dates from past quarters out of the ucsbdates table into
+ * ucsbdates_archive, so the hot table only holds the last few quarters.
+ *
+ * Quarters are numbered as in quarterYYYYQ (1 = winter, 2 = spring,
+ * 3 = summer, 4 = fall); the current quarter and the
+ * app.ucsbdates.archive.keepQuarters before it stay in ucsbdates.
+ */
+@Slf4j
+@Service("ucsbDateArchive")
+public class UCSBDateArchiveService {
+
+  @Autowired
+  UCSBDateRepository ucsbDateRepository;
+
+  @Autowired
+  TableVersionService tableVersionService;
+
+  @Autowired
+  UpcomingDatesService upcomingDates;
+
+  @Value("${app.ucsbdates.archive.keepQuarters:8}")
+  private int keepQuarters;
+
+  @Scheduled(cron = "${app.ucsbdates.archive.cron:0 0 3 * * *}")
+  public void archiveOldQuarters() {
+    archiveQuartersBefore(oldestKeptQuarter(LocalDate.now(), keepQuarters));
+  }
+
+  public int archiveQuartersBefore(String quarterYYYYQ) {
+    int moved = ucsbDateRepository.archiveQuartersBefore(quarterYYYYQ);
+    if (moved > 0) {
+      log.info("Archived {} UCSB dates from quarters before {}", moved, quarterYYYYQ);
+      tableVersionService.bump(UCSBDate.class);
+      upcomingDates.reload();
+    }
+    return moved;
+  }
+
+  /**
+   * The quarterYYYYQ of the quarter keepQuarters before the one containing
+   * the given day.
+   */
+  public static String oldestKeptQuarter(LocalDate today, int keepQuarters) {
+    int current = today.getYear() * 4 + (today.getMonthValue() - 1) / 3;
+    int oldest = current - keepQuarters;
+    return "%04d%d".formatted(Math.floorDiv(oldest, 4), Math.floorMod(oldest, 4) + 1);
+  }
+}
@@ -0,0 +1,91 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Time-ordered in-memory index of the UCSB dates, for "what happens next"
+ * lookups without reading the table.
+ *
+ * Dates are kept in a skip list ordered by time (then id, so two dates at the
+ * same moment are both kept), which answers the next n dates after a given
+ * time in O(log n + k) without locking readers. It is loaded at startup and
+ * kept current by the controller after each write; writers are serialized so
+ * that the skip list and the id lookup used to move or remove a date agree.
+ */
+@Service("upcomingDates")
+public class UpcomingDatesService {
+
+  private final UCSBDateRepository ucsbDateRepository;
+
+  private final ConcurrentNavigableMap<Key, UCSBDate> byTime = new ConcurrentSkipListMap<>();
+
+  // guarded by this
+  private final Map<Long, Key> keyById = new HashMap<>();
+
+  public UpcomingDatesService(UCSBDateRepository ucsbDateRepository) {
+    this.ucsbDateRepository = ucsbDateRepository;
+  }
+
+  @PostConstruct
+  public synchronized void reload() {
+    byTime.clear();
+    keyById.clear();
+    ucsbDateRepository.findAll().forEach(this::put);
+  }
+
+  public synchronized void put(UCSBDate date) {
+    Key previous = keyById.remove(date.getId());
+    if (previous != null) {
+      byTime.remove(previous);
+    }
+    if (date.getLocalDateTime() != null) {
+      Key key = new Key(date.getLocalDateTime(), date.getId());
+      keyById.put(date.getId(), key);
+      byTime.put(key, date);
+    }
+  }
+
+  public synchronized void putAll(Iterable<UCSBDate> dates) {
+    dates.forEach(this::put);
+  }
+
+  public synchronized void remove(long id) {
+    Key key = keyById.remove(id);
+    if (key != null) {
+      byTime.remove(key);
+    }
+  }
+
+  /**
+   * The first n dates strictly after the given time, earliest first.
+   */
+  public List<UCSBDate> upcoming(LocalDateTime after, int n) {
+    return byTime.tailMap(new Key(after, Long.MAX_VALUE), false).values().stream()
+        .limit(n)
+        .collect(Collectors.toList());
+  }
+
+  private record Key(LocalDateTime localDateTime, long id) implements Comparable<Key> {
+    private static final Comparator<Key> ORDER = Comparator.comparing(Key::localDateTime)
+        .thenComparingLong(Key::id);
+
+    @Override
+    public int compareTo(Key other) {
+      return ORDER.compare(this, other);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package edu.ucsb.cs156.example.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.CacheStatistics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bounded, TTL-evicting cache of resolved {@link User} rows, keyed by the
+ * OAuth subject (falling back to email), so that resolving the current user
+ * does not cost a database round-trip on every request.
+ *
+ * Every login upserts the row and puts the result here, replacing the entry
+ * for that user, so a profile or admin change is picked up at the user's next
+ * login. Nothing else in the app changes a user row, so entries are never
+ * evicted explicitly; they expire app.userCache.ttl after the last login.
+ */
+@Slf4j
+@Service("userCache")
+public class UserCacheService {
+
+  private final Cache<String, User> cache;
+
+  public UserCacheService(
+      @Value("${app.userCache.maxSize:10000}") long maxSize,
+      @Value("${app.userCache.ttl:PT5M}") Duration ttl) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+  }
+
+  public static String keyFor(String googleSub, String email) {
+    return googleSub != null ? googleSub : email;
+  }
+
+  public void put(String key, User user) {
+    cache.put(key, user);
+  }
+
+  public CacheStatistics getStatistics() {
+    CacheStats stats = cache.stats();
+    return CacheStatistics.builder()
+        .name("users")
+        .size(cache.estimatedSize())
+        .hitCount(stats.hitCount())
+        .missCount(stats.missCount())
+        .hitRate(stats.hitRate())
+        .evictionCount(stats.evictionCount())
+        .build();
+  }
+}
@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS transport_modes (
+    id INTEGER NOT NULL PRIMARY KEY,
+    name VARCHAR(255),
+    CONSTRAINT transport_modes_name_key UNIQUE (name)
+);
+INSERT INTO transport_modes (id, name)
+    SELECT ROW_NUMBER() OVER (ORDER BY mode), mode
+    FROM (SELECT DISTINCT mode FROM transport WHERE mode IS NOT NULL) modes;
+CREATE SEQUENCE IF NOT EXISTS transport_modes_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('transport_modes_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM transport_modes), false);
+
+ALTER TABLE transport ADD COLUMN IF NOT EXISTS mode_id INTEGER REFERENCES transport_modes (id);
+UPDATE transport SET mode_id = transport_modes.id FROM transport_modes WHERE transport_modes.name = transport.mode;
+-- the mode column is kept: Transport still reads it for rows without a mode_id
+CREATE INDEX IF NOT EXISTS transport_mode_id_idx ON transport (mode_id, id);
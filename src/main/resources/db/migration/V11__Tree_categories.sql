@@ -0,0 +1,24 @@
+CREATE TABLE IF NOT EXISTS tree_categories (
+    id BIGINT NOT NULL PRIMARY KEY,
+    name VARCHAR(255),
+    parent_id BIGINT REFERENCES tree_categories (id),
+    CONSTRAINT tree_categories_name_key UNIQUE (name)
+);
+CREATE TABLE IF NOT EXISTS tree_category_paths (
+    ancestor_id BIGINT NOT NULL REFERENCES tree_categories (id),
+    descendant_id BIGINT NOT NULL REFERENCES tree_categories (id),
+    depth INTEGER NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id)
+);
+CREATE INDEX IF NOT EXISTS tree_category_paths_descendant_idx ON tree_category_paths (descendant_id, depth);
+CREATE INDEX IF NOT EXISTS trees_category_idx ON trees (category, id);
+
+-- TreeCategoryInitializer does the same at startup for any category not yet imported.
+-- every category already used by a tree starts out at the top level
+INSERT INTO tree_categories (id, name)
+    SELECT ROW_NUMBER() OVER (ORDER BY category), category
+    FROM (SELECT DISTINCT category FROM trees WHERE category IS NOT NULL) categories;
+INSERT INTO tree_category_paths (ancestor_id, descendant_id, depth)
+    SELECT id, id, 0 FROM tree_categories;
+CREATE SEQUENCE IF NOT EXISTS tree_categories_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('tree_categories_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM tree_categories), false);
@@ -0,0 +1,7 @@
+-- same statements as RestaurantSearchInitializer
+ALTER TABLE restaurant ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(description, '')), 'A')
+        || setweight(to_tsvector('english', coalesce(details, '')), 'B')
+    ) STORED;
+CREATE INDEX IF NOT EXISTS restaurant_search_idx ON restaurant USING GIN (search_vector);
@@ -0,0 +1,9 @@
+-- UserEmailIndexInitializer does this merge at startup, one email at a time; it
+-- also fills missing profile columns from the newest duplicate and logs the ids.
+UPDATE users SET admin = TRUE
+WHERE admin = FALSE AND EXISTS (
+    SELECT 1 FROM users d WHERE d.email = users.email AND d.id <> users.id AND d.admin = TRUE);
+DELETE FROM users
+WHERE email IS NOT NULL
+  AND id NOT IN (SELECT MIN(id) FROM users WHERE email IS NOT NULL GROUP BY email);
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_unique_idx ON users (email);
@@ -0,0 +1,14 @@
+CREATE SEQUENCE IF NOT EXISTS attractions_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('attractions_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM attractions), false);
+CREATE SEQUENCE IF NOT EXISTS book_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('book_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM book), false);
+CREATE SEQUENCE IF NOT EXISTS movies_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('movies_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM movies), false);
+CREATE SEQUENCE IF NOT EXISTS restaurant_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('restaurant_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM restaurant), false);
+CREATE SEQUENCE IF NOT EXISTS transport_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('transport_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM transport), false);
+CREATE SEQUENCE IF NOT EXISTS trees_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('trees_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM trees), false);
+CREATE SEQUENCE IF NOT EXISTS ucsbdates_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('ucsbdates_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM ucsbdates), false);
@@ -0,0 +1,5 @@
+-- The indexes declared on UCSBDate. UCSBDateIndexInitializer runs these same
+-- statements at startup, since ddl-auto=update does not reliably add an index
+-- to an existing table.
+CREATE INDEX IF NOT EXISTS ucsbdates_quarter_idx ON ucsbdates (quarter_yyyyq, local_date_time);
+CREATE INDEX IF NOT EXISTS ucsbdates_local_date_time_idx ON ucsbdates (local_date_time);
@@ -0,0 +1,10 @@
+-- Also run at startup by ArchivePartitionInitializer, before ddl-auto.
+CREATE TABLE IF NOT EXISTS ucsbdates_archive (
+    id BIGINT NOT NULL,
+    quarter_yyyyq VARCHAR(255) NOT NULL,
+    name VARCHAR(255),
+    local_date_time TIMESTAMP,
+    PRIMARY KEY (id, quarter_yyyyq)
+) PARTITION BY LIST (quarter_yyyyq);
+CREATE TABLE IF NOT EXISTS ucsbdates_archive_default PARTITION OF ucsbdates_archive DEFAULT;
+CREATE INDEX IF NOT EXISTS ucsbdates_archive_local_date_time_idx ON ucsbdates_archive (local_date_time);
@@ -0,0 +1,7 @@
+ALTER TABLE transport ADD COLUMN IF NOT EXISTS cost_cents BIGINT;
+-- same rule as Transport.costCents: "free" is 0, otherwise the first amount
+UPDATE transport SET cost_cents = CASE
+    WHEN lower(trim(replace(cost, ',', ''))) = 'free' THEN 0
+    ELSE round(substring(replace(cost, ',', '') from '[0-9]+(?:\.[0-9]+)?')::numeric * 100)::bigint
+END;
+CREATE INDEX IF NOT EXISTS transport_cost_cents_idx ON transport (cost_cents, id);
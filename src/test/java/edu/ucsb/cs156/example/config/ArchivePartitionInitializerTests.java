@@ -0,0 +1,55 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class ArchivePartitionInitializerTests {
+
+  @Test
+  void test_a_new_database_gets_the_partitioned_parent() {
+    assertEquals(List.of(
+        ArchivePartitionInitializer.CREATE_PARENT,
+        ArchivePartitionInitializer.CREATE_DEFAULT_PARTITION,
+        ArchivePartitionInitializer.CREATE_INDEX), ArchivePartitionInitializer.statementsFor(null));
+  }
+
+  @Test
+  void test_a_plain_table_is_moved_into_a_partitioned_one() {
+    List<String> statements = ArchivePartitionInitializer.statementsFor("r");
+
+    assertTrue(statements.get(0).contains("RENAME TO ucsbdates_archive_unpartitioned"));
+    assertTrue(statements.indexOf(ArchivePartitionInitializer.CREATE_PARENT)
+        > statements.indexOf("DROP INDEX IF EXISTS ucsbdates_archive_local_date_time_idx"));
+    assertTrue(statements.get(statements.size() - 2).contains("FROM ucsbdates_archive_unpartitioned"));
+    assertEquals("DROP TABLE ucsbdates_archive_unpartitioned", statements.get(statements.size() - 1));
+  }
+
+  @Test
+  void test_a_partitioned_table_is_left_alone() {
+    assertEquals(List.of(), ArchivePartitionInitializer.statementsFor("p"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void test_nothing_runs_on_other_databases() {
+    JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+    new ArchivePartitionInitializer(jdbcTemplate).createPartitionedArchive();
+
+    verify(jdbcTemplate, never()).queryForList(anyString(), any(Class.class));
+    verify(jdbcTemplate, never()).execute(anyString());
+  }
+}
@@ -8,11 +8,13 @@ import edu.ucsb.cs156.example.repositories.AttractionsRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -166,6 +168,57 @@ public class AttractionsControllerTests extends ControllerTestCase {
                 assertEquals(expectedJson, responseString);
         }
 
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_keyset_page_with_a_next_cursor() throws Exception {
+
+                // arrange
+
+                Attractions a = Attractions.builder().id(3L).build();
+                Attractions b = Attractions.builder().id(4L).build();
+                Attractions c = Attractions.builder().id(5L).build();
+
+                when(attractionsRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b, c)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/attractions/all?after=2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "4"))
+                                .andReturn();
+
+                // assert
+
+                verify(attractionsRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a, b));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void last_keyset_page_has_no_next_cursor_and_limit_is_capped() throws Exception {
+
+                // arrange
+
+                Attractions a = Attractions.builder().id(3L).build();
+
+                when(attractionsRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 501))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/attractions/all?after=2&limit=1000000"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(ApiController.NEXT_CURSOR_HEADER))
+                                .andReturn();
+
+                // assert
+
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void an_admin_user_can_post_a_new_attractions() throws Exception {
@@ -313,4 +366,90 @@ public class AttractionsControllerTests extends ControllerTestCase {
                 assertEquals("Attractions with id 67 not found", json.get("message"));
 
         }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_in_bulk() throws Exception {
+                mockMvc.perform(post("/api/attractions/bulk"))
+                                .andExpect(status().is(403)); // only admins can post
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_attractions_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+                // arrange
+
+                List<Attractions> incoming = List.of(
+                                Attractions.builder()
+                                                .id(7L)
+                                                .name("bridge")
+                                                .address("123 rd")
+                                                .description("red")
+                                                .build(),
+                                Attractions.builder()
+                                                .id(8L)
+                                                .name("pier")
+                                                .address("1 Stearns Wharf")
+                                                .description("wooden")
+                                                .build());
+                List<Attractions> expected = List.of(
+                                Attractions.builder()
+                                                .name("bridge")
+                                                .address("123 rd")
+                                                .description("red")
+                                                .build(),
+                                Attractions.builder()
+                                                .name("pier")
+                                                .address("1 Stearns Wharf")
+                                                .description("wooden")
+                                                .build());
+                List<Attractions> saved = List.of(
+                                Attractions.builder()
+                                                .id(51L)
+                                                .name("bridge")
+                                                .address("123 rd")
+                                                .description("red")
+                                                .build(),
+                                Attractions.builder()
+                                                .id(52L)
+                                                .name("pier")
+                                                .address("1 Stearns Wharf")
+                                                .description("wooden")
+                                                .build());
+
+                when(attractionsRepository.saveAll(eq(expected))).thenReturn(saved);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/attractions/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(incoming))
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(attractionsRepository, times(1)).saveAll(expected);
+                String expectedJson = mapper.writeValueAsString(saved);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_answers_304_without_querying_when_the_etag_still_matches() throws Exception {
+                // arrange
+                String etag = mockMvc.perform(get("/api/attractions/all"))
+                                .andExpect(status().isOk()).andReturn()
+                                .getResponse().getHeader("ETag");
+
+                // act
+                mockMvc.perform(get("/api/attractions/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(content().string(""));
+
+                // assert
+                verify(attractionsRepository, times(1)).findAll();
+        }
 }
@@ -5,14 +5,19 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Book;
 import edu.ucsb.cs156.example.repositories.BookRepository;
+import edu.ucsb.cs156.example.models.WordcountStatistics;
+import edu.ucsb.cs156.example.services.BookSearchService;
+import edu.ucsb.cs156.example.services.BookStatisticsService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -24,6 +29,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
@@ -37,6 +43,12 @@ public class BookControllerTests extends ControllerTestCase {
         @MockBean
         BookRepository bookRepository;
 
+        @MockBean
+        BookSearchService bookSearch;
+
+        @MockBean
+        BookStatisticsService bookStatistics;
+
         @MockBean
         UserRepository userRepository;
 
@@ -163,6 +175,57 @@ public class BookControllerTests extends ControllerTestCase {
                 assertEquals(expectedJson, responseString);
         }
 
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_keyset_page_with_a_next_cursor() throws Exception {
+
+                // arrange
+
+                Book a = Book.builder().id(3L).build();
+                Book b = Book.builder().id(4L).build();
+                Book c = Book.builder().id(5L).build();
+
+                when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b, c)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/books/all?after=2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "4"))
+                                .andReturn();
+
+                // assert
+
+                verify(bookRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a, b));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void last_keyset_page_has_no_next_cursor_and_limit_is_capped() throws Exception {
+
+                // arrange
+
+                Book a = Book.builder().id(3L).build();
+
+                when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 501))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/books/all?after=2&limit=1000000"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(ApiController.NEXT_CURSOR_HEADER))
+                                .andReturn();
+
+                // assert
+
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void an_admin_user_can_post_a_new_book() throws Exception {
@@ -185,6 +248,8 @@ public class BookControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(bookRepository, times(1)).save(parameterized);
+                verify(bookSearch, times(1)).put(parameterized);
+                verify(bookStatistics, times(1)).added(parameterized);
                 String expectedJson = mapper.writeValueAsString(parameterized);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -213,6 +278,8 @@ public class BookControllerTests extends ControllerTestCase {
                 // assert
                 verify(bookRepository, times(1)).findById(15L);
                 verify(bookRepository, times(1)).delete(any());
+                verify(bookSearch, times(1)).remove(15L);
+                verify(bookStatistics, times(1)).changed("Fantasy", null);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Book with id 15 deleted", json.get("message"));
@@ -273,6 +340,8 @@ public class BookControllerTests extends ControllerTestCase {
                 // assert
                 verify(bookRepository, times(1)).findById(67L);
                 verify(bookRepository, times(1)).save(pjo_edited); // should be saved with updated info
+                verify(bookSearch, times(1)).put(pjo_edited);
+                verify(bookStatistics, times(1)).changed("Fantasy", "scary");
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -308,4 +377,306 @@ public class BookControllerTests extends ControllerTestCase {
                 assertEquals("Book with id 67 not found", json.get("message"));
 
         }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_in_bulk() throws Exception {
+                mockMvc.perform(post("/api/books/bulk"))
+                                .andExpect(status().is(403)); // only admins can post
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_books_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+                // arrange
+
+                List<Book> incoming = List.of(
+                                Book.builder()
+                                                .id(7L)
+                                                .name("Parameterized Algorithms")
+                                                .author("Daniel Lokshtanov")
+                                                .genre("Fantasy")
+                                                .wordcount(123456)
+                                                .build(),
+                                Book.builder()
+                                                .id(8L)
+                                                .name("Percy Jackson and the Lightning Thief")
+                                                .author("Rick Riordan")
+                                                .genre("Fantasy")
+                                                .wordcount(412412)
+                                                .build());
+                List<Book> expected = List.of(
+                                Book.builder()
+                                                .name("Parameterized Algorithms")
+                                                .author("Daniel Lokshtanov")
+                                                .genre("Fantasy")
+                                                .wordcount(123456)
+                                                .build(),
+                                Book.builder()
+                                                .name("Percy Jackson and the Lightning Thief")
+                                                .author("Rick Riordan")
+                                                .genre("Fantasy")
+                                                .wordcount(412412)
+                                                .build());
+                List<Book> saved = List.of(
+                                Book.builder()
+                                                .id(51L)
+                                                .name("Parameterized Algorithms")
+                                                .author("Daniel Lokshtanov")
+                                                .genre("Fantasy")
+                                                .wordcount(123456)
+                                                .build(),
+                                Book.builder()
+                                                .id(52L)
+                                                .name("Percy Jackson and the Lightning Thief")
+                                                .author("Rick Riordan")
+                                                .genre("Fantasy")
+                                                .wordcount(412412)
+                                                .build());
+
+                when(bookRepository.saveAll(eq(expected))).thenReturn(saved);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/books/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(incoming))
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bookRepository, times(1)).saveAll(expected);
+                verify(bookSearch, times(1)).putAll(saved);
+                verify(bookStatistics, times(1)).addedAll(saved);
+                String expectedJson = mapper.writeValueAsString(saved);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void a_bulk_post_over_the_row_cap_is_rejected() throws Exception {
+                // arrange
+
+                List<Book> incoming = new ArrayList<>();
+                for (int i = 0; i < 1001; i++) {
+                        incoming.add(Book.builder()
+                                .name("Parameterized Algorithms")
+                                .author("Daniel Lokshtanov")
+                                .genre("Fantasy")
+                                .wordcount(123456)
+                                .build());
+                }
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/books/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(incoming))
+                                                .with(csrf()))
+                                .andExpect(status().isPayloadTooLarge()).andReturn();
+
+                // assert
+                verify(bookRepository, times(0)).saveAll(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("Bulk request has 1001 rows; at most 1000 are allowed", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void a_negative_wordcount_is_rejected() throws Exception {
+                // arrange
+                Book negative = Book.builder()
+                                .name("Parameterized Algorithms")
+                                .author("Daniel Lokshtanov")
+                                .genre("Fantasy")
+                                .wordcount(-1)
+                                .build();
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/books/post?name=Parameterized Algorithms&author=Daniel Lokshtanov&genre=Fantasy&wordcount=-5")
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest()).andReturn();
+                mockMvc.perform(
+                                post("/api/books/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(List.of(negative)))
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(
+                                put("/api/books?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(negative))
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest());
+
+                // assert
+                verify(bookRepository, times(0)).save(any());
+                verify(bookRepository, times(0)).saveAll(any());
+                verify(bookStatistics, times(0)).added(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("Parameter wordcount must not be negative but was -5", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_answers_304_without_querying_when_the_etag_still_matches() throws Exception {
+                // arrange
+                String etag = mockMvc.perform(get("/api/books/all"))
+                                .andExpect(status().isOk()).andReturn()
+                                .getResponse().getHeader("ETag");
+
+                // act
+                mockMvc.perform(get("/api/books/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(content().string(""));
+
+                // assert
+                verify(bookRepository, times(1)).findAll();
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_answers_304_without_querying_when_the_etag_still_matches() throws Exception {
+                // arrange
+                Book pjo = Book.builder()
+                        .name("Percy Jackson and the Lightning Thief")
+                        .author("Rick Riordan")
+                        .genre("Fantasy")
+                        .wordcount(412412)
+                        .build();
+
+                when(bookRepository.findById(eq(15L))).thenReturn(Optional.of(pjo));
+                String etag = mockMvc.perform(get("/api/books?id=15"))
+                                .andExpect(status().isOk()).andReturn()
+                                .getResponse().getHeader("ETag");
+
+                // act
+                mockMvc.perform(get("/api/books?id=15").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified());
+
+                // assert
+                verify(bookRepository, times(1)).findById(15L);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void a_write_through_the_controller_changes_the_etag() throws Exception {
+                // arrange
+                String etag = mockMvc.perform(get("/api/books/all"))
+                                .andExpect(status().isOk()).andReturn()
+                                .getResponse().getHeader("ETag");
+
+                // act
+                mockMvc.perform(
+                                post("/api/books/post?name=Parameterized Algorithms&author=Daniel Lokshtanov&genre=Fantasy&wordcount=123456")
+                                                .with(csrf()))
+                                .andExpect(status().isOk());
+                MvcResult response = mockMvc.perform(get("/api/books/all").header("If-None-Match", etag))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bookRepository, times(2)).findAll();
+                String newEtag = response.getResponse().getHeader("ETag");
+                assertNotEquals(etag, newEtag);
+        }
+
+        @Test
+        public void logged_out_users_cannot_search() throws Exception {
+                mockMvc.perform(get("/api/books/search?q=lokshtanov"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_search_books_from_the_index() throws Exception {
+                // arrange
+                Book parameterized = Book.builder()
+                                .id(3L)
+                                .name("Parameterized Algorithms")
+                                .author("Daniel Lokshtanov")
+                                .genre("Fantasy")
+                                .wordcount(123456)
+                                .build();
+
+                List<Book> expected = List.of(parameterized);
+                when(bookSearch.search(eq("lokshtanov param"), eq(100))).thenReturn(expected);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/books/search").param("q", "lokshtanov param"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bookSearch, times(1)).search("lokshtanov param", 100);
+                verify(bookRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(expected);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @Test
+        public void logged_out_users_cannot_get_stats() throws Exception {
+                mockMvc.perform(get("/api/books/stats"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_wordcount_stats_for_every_genre() throws Exception {
+                // arrange
+                WordcountStatistics fantasy = WordcountStatistics.builder()
+                                .genre("Fantasy")
+                                .count(2)
+                                .min(87000)
+                                .max(412412)
+                                .mean(249706.0)
+                                .p50(87000)
+                                .p90(412412)
+                                .p99(412412)
+                                .build();
+                when(bookStatistics.getStatistics()).thenReturn(List.of(fantasy));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/books/stats"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bookRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(List.of(fantasy));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_wordcount_stats_for_one_genre() throws Exception {
+                // arrange
+                WordcountStatistics textbook = WordcountStatistics.builder()
+                                .genre("Textbook")
+                                .count(1)
+                                .min(123456)
+                                .max(123456)
+                                .mean(123456.0)
+                                .p50(123456)
+                                .p90(123456)
+                                .p99(123456)
+                                .build();
+                when(bookStatistics.getStatistics(eq("Textbook"))).thenReturn(textbook);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/books/stats?genre=Textbook"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bookStatistics, times(0)).getStatistics();
+                String expectedJson = mapper.writeValueAsString(List.of(textbook));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
 }
@@ -0,0 +1,81 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.CacheStatistics;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.SecondLevelCacheService;
+import edu.ucsb.cs156.example.services.UserCacheService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = CacheStatsController.class)
+public class CacheStatsControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  UserCacheService userCacheService;
+
+  @MockBean
+  SecondLevelCacheService secondLevelCacheService;
+
+  @Test
+  public void caches__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/caches"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void caches__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/caches"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void caches__admin_logged_in() throws Exception {
+
+    // arrange
+
+    CacheStatistics userStats = CacheStatistics.builder()
+        .name("users")
+        .size(2)
+        .hitCount(10)
+        .missCount(2)
+        .hitRate(10.0 / 12.0)
+        .evictionCount(0)
+        .build();
+    CacheStatistics commonsStats = CacheStatistics.builder()
+        .name("hibernate:ucsbdiningcommons")
+        .size(4)
+        .hitCount(30)
+        .missCount(4)
+        .hitRate(30.0 / 34.0)
+        .evictionCount(0)
+        .build();
+    when(userCacheService.getStatistics()).thenReturn(userStats);
+    when(secondLevelCacheService.getStatistics()).thenReturn(List.of(commonsStats));
+    String expectedJson = mapper.writeValueAsString(List.of(userStats, commonsStats));
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/admin/caches"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+}
@@ -0,0 +1,126 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.DigestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = FrontendController.class)
+@Import(TestConfig.class)
+public class FrontendControllerTests extends ControllerTestCase {
+
+        @MockBean
+        UserRepository userRepository;
+
+        private static final byte[] INDEX = "<html>index</html>".getBytes(StandardCharsets.UTF_8);
+        private static final byte[] INDEX_GZIP = "gzip bytes".getBytes(StandardCharsets.UTF_8);
+        private static final byte[] INDEX_BROTLI = "brotli bytes".getBytes(StandardCharsets.UTF_8);
+        private static final String HASH = DigestUtils.md5DigestAsHex(INDEX);
+
+        // the page comes from a stubbed ResourceLoader, so the test does not
+        // depend on a frontend build being on the classpath
+        private MockMvc frontend(boolean withBrotli) {
+                ResourceLoader resourceLoader = mock(ResourceLoader.class);
+                Resource missing = new ClassPathResource("public/missing.html");
+                when(resourceLoader.getResource("classpath:/public/index.html")).thenReturn(new ByteArrayResource(INDEX));
+                when(resourceLoader.getResource("classpath:/public/index.html.gz")).thenReturn(new ByteArrayResource(INDEX_GZIP));
+                when(resourceLoader.getResource("classpath:/public/index.html.br"))
+                                .thenReturn(withBrotli ? new ByteArrayResource(INDEX_BROTLI) : missing);
+                return MockMvcBuilders.standaloneSetup(new FrontendController(resourceLoader)).build();
+        }
+
+        @Test
+        public void accepts_matches_codings_case_insensitively_and_honours_q_zero() {
+                assertTrue(FrontendController.accepts("gzip, deflate, br", "br"));
+                assertTrue(FrontendController.accepts("GZIP;q=0.5", "gzip"));
+                assertTrue(FrontendController.accepts("br ; q=1", "br"));
+                assertFalse(FrontendController.accepts("gzip;q=0", "gzip"));
+                assertFalse(FrontendController.accepts("br; q=0.000", "br"));
+                assertFalse(FrontendController.accepts("identity", "gzip"));
+                assertFalse(FrontendController.accepts(null, "gzip"));
+        }
+
+        @Test
+        public void index_prefers_brotli_then_gzip_with_an_etag_per_encoding() throws Exception {
+                MockMvc mockMvc = frontend(true);
+
+                mockMvc.perform(get("/").header("Accept-Encoding", "gzip, deflate, br"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Content-Encoding", "br"))
+                                .andExpect(header().string("ETag", "\"" + HASH + "-br\""))
+                                .andExpect(header().string("Vary", "Accept-Encoding"))
+                                .andExpect(header().string("Cache-Control", "no-cache"))
+                                .andExpect(content().bytes(INDEX_BROTLI));
+
+                mockMvc.perform(get("/some/route").header("Accept-Encoding", "gzip"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Content-Encoding", "gzip"))
+                                .andExpect(header().string("ETag", "\"" + HASH + "-gz\""))
+                                .andExpect(content().bytes(INDEX_GZIP));
+
+                mockMvc.perform(get("/"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("Content-Encoding"))
+                                .andExpect(header().string("ETag", "\"" + HASH + "\""))
+                                .andExpect(header().string("Vary", "Accept-Encoding"))
+                                .andExpect(content().bytes(INDEX));
+        }
+
+        @Test
+        public void index_falls_back_to_gzip_when_there_is_no_brotli_variant() throws Exception {
+                frontend(false).perform(get("/").header("Accept-Encoding", "br, gzip"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Content-Encoding", "gzip"))
+                                .andExpect(content().bytes(INDEX_GZIP));
+        }
+
+        @Test
+        public void index_answers_304_with_vary_only_for_the_same_encoding() throws Exception {
+                MockMvc mockMvc = frontend(true);
+
+                mockMvc.perform(get("/").header("Accept-Encoding", "gzip").header("If-None-Match", "\"" + HASH + "-gz\""))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", "\"" + HASH + "-gz\""))
+                                .andExpect(header().string("Vary", "Accept-Encoding"))
+                                .andExpect(content().string(""));
+
+                // a gzip ETag must not confirm the identity body
+                mockMvc.perform(get("/").header("If-None-Match", "\"" + HASH + "-gz\""))
+                                .andExpect(status().isOk())
+                                .andExpect(content().bytes(INDEX));
+        }
+
+        @Test
+        public void hashed_static_files_are_cached_as_immutable() throws Exception {
+                mockMvc.perform(get("/static/js/main.0123abcd.js"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"));
+        }
+
+        @Test
+        public void other_top_level_files_are_revalidated() throws Exception {
+                mockMvc.perform(get("/manifest.json"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Cache-Control", "no-cache"));
+        }
+}
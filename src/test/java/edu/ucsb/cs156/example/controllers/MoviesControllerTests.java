@@ -4,15 +4,20 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Movie;
+import edu.ucsb.cs156.example.models.GenreYearCount;
 import edu.ucsb.cs156.example.repositories.MovieRepository;
+import edu.ucsb.cs156.example.services.MovieAutocompleteService;
+import edu.ucsb.cs156.example.services.MovieHistogramService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -42,6 +47,12 @@ public class MoviesControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        MovieHistogramService movieHistogram;
+
+        @MockBean
+        MovieAutocompleteService movieAutocomplete;
+
         // Authorization tests for /api/movies/admin/all
 
         @Test
@@ -166,6 +177,57 @@ public class MoviesControllerTests extends ControllerTestCase {
                 assertEquals(expectedJson, responseString);
         }
 
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_keyset_page_with_a_next_cursor() throws Exception {
+
+                // arrange
+
+                Movie a = Movie.builder().id(3L).build();
+                Movie b = Movie.builder().id(4L).build();
+                Movie c = Movie.builder().id(5L).build();
+
+                when(movieRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b, c)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/movies/all?after=2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "4"))
+                                .andReturn();
+
+                // assert
+
+                verify(movieRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a, b));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void last_keyset_page_has_no_next_cursor_and_limit_is_capped() throws Exception {
+
+                // arrange
+
+                Movie a = Movie.builder().id(3L).build();
+
+                when(movieRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 501))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/movies/all?after=2&limit=1000000"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(ApiController.NEXT_CURSOR_HEADER))
+                                .andReturn();
+
+                // assert
+
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void an_admin_user_can_post_a_new_movie() throws Exception {
@@ -189,6 +251,8 @@ public class MoviesControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(movieRepository, times(1)).save(movie1);
+                verify(movieHistogram, times(1)).added(movie1);
+                verify(movieAutocomplete, times(1)).put(movie1);
                 String expectedJson = mapper.writeValueAsString(movie1);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -218,6 +282,8 @@ public class MoviesControllerTests extends ControllerTestCase {
                 // assert
                 verify(movieRepository, times(1)).findById(15L);
                 verify(movieRepository, times(1)).delete(any());
+                verify(movieHistogram, times(1)).removed(movie1);
+                verify(movieAutocomplete, times(1)).remove(15L);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Movie with id 15 deleted", json.get("message"));
@@ -279,6 +345,8 @@ public class MoviesControllerTests extends ControllerTestCase {
                 // assert
                 verify(movieRepository, times(1)).findById(67L);
                 verify(movieRepository, times(1)).save(movieEdited); // should be saved with correct user
+                verify(movieHistogram, times(1)).changed("action", 2026, movieEdited);
+                verify(movieAutocomplete, times(1)).put(movieEdited);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -315,4 +383,172 @@ public class MoviesControllerTests extends ControllerTestCase {
                 assertEquals("Movie with id 67 not found", json.get("message"));
 
         }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_in_bulk() throws Exception {
+                mockMvc.perform(post("/api/movies/bulk"))
+                                .andExpect(status().is(403)); // only admins can post
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_movies_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+                // arrange
+
+                List<Movie> incoming = List.of(
+                                Movie.builder()
+                                                .id(7L)
+                                                .name("moviename")
+                                                .genre("comedy")
+                                                .year(2022)
+                                                .build(),
+                                Movie.builder()
+                                                .id(8L)
+                                                .name("othermovie")
+                                                .genre("drama")
+                                                .year(2021)
+                                                .build());
+                List<Movie> expected = List.of(
+                                Movie.builder()
+                                                .name("moviename")
+                                                .genre("comedy")
+                                                .year(2022)
+                                                .build(),
+                                Movie.builder()
+                                                .name("othermovie")
+                                                .genre("drama")
+                                                .year(2021)
+                                                .build());
+                List<Movie> saved = List.of(
+                                Movie.builder()
+                                                .id(51L)
+                                                .name("moviename")
+                                                .genre("comedy")
+                                                .year(2022)
+                                                .build(),
+                                Movie.builder()
+                                                .id(52L)
+                                                .name("othermovie")
+                                                .genre("drama")
+                                                .year(2021)
+                                                .build());
+
+                when(movieRepository.saveAll(eq(expected))).thenReturn(saved);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/movies/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(incoming))
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(movieRepository, times(1)).saveAll(expected);
+                verify(movieHistogram, times(1)).addedAll(saved);
+                verify(movieAutocomplete, times(1)).putAll(saved);
+                String expectedJson = mapper.writeValueAsString(saved);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_answers_304_without_querying_when_the_etag_still_matches() throws Exception {
+                // arrange
+                String etag = mockMvc.perform(get("/api/movies/all"))
+                                .andExpect(status().isOk()).andReturn()
+                                .getResponse().getHeader("ETag");
+
+                // act
+                mockMvc.perform(get("/api/movies/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(content().string(""));
+
+                // assert
+                verify(movieRepository, times(1)).findAll();
+        }
+
+        // Tests for GET /api/movies/histogram
+
+        @Test
+        public void logged_out_users_cannot_get_the_histogram() throws Exception {
+                mockMvc.perform(get("/api/movies/histogram"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_the_histogram_without_reading_the_table() throws Exception {
+
+                // arrange
+
+                List<GenreYearCount> histogram = List.of(
+                                GenreYearCount.builder().genre("action").year(2026).count(2).build(),
+                                GenreYearCount.builder().genre("horror").year(2023).count(1).build());
+
+                when(movieHistogram.getHistogram()).thenReturn(histogram);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/movies/histogram"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(movieRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(histogram);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for GET /api/movies/autocomplete
+
+        @Test
+        public void logged_out_users_cannot_autocomplete() throws Exception {
+                mockMvc.perform(get("/api/movies/autocomplete?prefix=the"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_autocomplete_without_reading_the_table() throws Exception {
+
+                // arrange
+
+                Movie movie1 = Movie.builder().id(1L).name("The Thing").genre("horror").year(1982).build();
+                Movie movie2 = Movie.builder().id(2L).name("Thelma & Louise").genre("drama").year(1991).build();
+
+                when(movieAutocomplete.complete(eq("The"), eq(10))).thenReturn(List.of(movie1, movie2));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/movies/autocomplete?prefix=The"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(movieRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(List.of(movie1, movie2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void autocomplete_passes_the_limit_to_the_index() throws Exception {
+
+                // arrange
+
+                when(movieAutocomplete.complete(eq("alien"), eq(3))).thenReturn(List.of());
+
+                // act
+                mockMvc.perform(get("/api/movies/autocomplete?prefix=alien&limit=3"))
+                                .andExpect(status().isOk());
+
+                // assert
+
+                verify(movieAutocomplete, times(1)).complete("alien", 3);
+        }
 }
@@ -0,0 +1,72 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.HandlerLatencyStatistics;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.RequestMetricsService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = RequestMetricsController.class)
+public class RequestMetricsControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  RequestMetricsService requestMetricsService;
+
+  @Test
+  public void metrics__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/metrics/handlers"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void metrics__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/metrics/handlers"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void metrics__admin_logged_in() throws Exception {
+
+    // arrange
+
+    HandlerLatencyStatistics stats = HandlerLatencyStatistics.builder()
+        .handler("BookController.allBooks")
+        .count(100)
+        .errorCount(1)
+        .errorRate(0.01)
+        .inFlight(2)
+        .meanMicros(850.0)
+        .p50Micros(700)
+        .p95Micros(1500)
+        .p99Micros(3000)
+        .maxMicros(9000)
+        .build();
+    when(requestMetricsService.getStatistics()).thenReturn(List.of(stats));
+    String expectedJson = mapper.writeValueAsString(List.of(stats));
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/admin/metrics/handlers"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+}
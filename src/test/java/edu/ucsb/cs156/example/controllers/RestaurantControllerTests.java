@@ -8,11 +8,13 @@ import edu.ucsb.cs156.example.repositories.RestaurantRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -27,6 +29,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -166,6 +170,57 @@ public class RestaurantControllerTests extends ControllerTestCase {
                 assertEquals(expectedJson, responseString);
         }
 
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_keyset_page_with_a_next_cursor() throws Exception {
+
+                // arrange
+
+                Restaurant a = Restaurant.builder().id(3L).build();
+                Restaurant b = Restaurant.builder().id(4L).build();
+                Restaurant c = Restaurant.builder().id(5L).build();
+
+                when(restaurantRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b, c)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurant/all?after=2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "4"))
+                                .andReturn();
+
+                // assert
+
+                verify(restaurantRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a, b));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void last_keyset_page_has_no_next_cursor_and_limit_is_capped() throws Exception {
+
+                // arrange
+
+                Restaurant a = Restaurant.builder().id(3L).build();
+
+                when(restaurantRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 501))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurant/all?after=2&limit=1000000"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(ApiController.NEXT_CURSOR_HEADER))
+                                .andReturn();
+
+                // assert
+
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void an_admin_user_can_post_a_new_restaurant() throws Exception {
@@ -313,4 +368,160 @@ public class RestaurantControllerTests extends ControllerTestCase {
                 assertEquals("Restaurant with id 67 not found", json.get("message"));
 
         }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_in_bulk() throws Exception {
+                mockMvc.perform(post("/api/restaurant/bulk"))
+                                .andExpect(status().is(403)); // only admins can post
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_restaurants_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+                // arrange
+
+                List<Restaurant> incoming = List.of(
+                                Restaurant.builder()
+                                                .id(7L)
+                                                .name("bridge")
+                                                .details("123 rd")
+                                                .description("red")
+                                                .build(),
+                                Restaurant.builder()
+                                                .id(8L)
+                                                .name("freebirds")
+                                                .details("879 Embarcadero del Norte")
+                                                .description("burritos")
+                                                .build());
+                List<Restaurant> expected = List.of(
+                                Restaurant.builder()
+                                                .name("bridge")
+                                                .details("123 rd")
+                                                .description("red")
+                                                .build(),
+                                Restaurant.builder()
+                                                .name("freebirds")
+                                                .details("879 Embarcadero del Norte")
+                                                .description("burritos")
+                                                .build());
+                List<Restaurant> saved = List.of(
+                                Restaurant.builder()
+                                                .id(51L)
+                                                .name("bridge")
+                                                .details("123 rd")
+                                                .description("red")
+                                                .build(),
+                                Restaurant.builder()
+                                                .id(52L)
+                                                .name("freebirds")
+                                                .details("879 Embarcadero del Norte")
+                                                .description("burritos")
+                                                .build());
+
+                when(restaurantRepository.saveAll(eq(expected))).thenReturn(saved);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/restaurant/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(incoming))
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(1)).saveAll(expected);
+                String expectedJson = mapper.writeValueAsString(saved);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_answers_304_without_querying_when_the_etag_still_matches() throws Exception {
+                // arrange
+                String etag = mockMvc.perform(get("/api/restaurant/all"))
+                                .andExpect(status().isOk()).andReturn()
+                                .getResponse().getHeader("ETag");
+
+                // act
+                mockMvc.perform(get("/api/restaurant/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(content().string(""));
+
+                // assert
+                verify(restaurantRepository, times(1)).findAll();
+        }
+
+        // Tests for GET /api/restaurant/search
+
+        @Test
+        public void logged_out_users_cannot_search() throws Exception {
+                mockMvc.perform(get("/api/restaurant/search?q=tacos"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_search_and_gets_the_next_page_number() throws Exception {
+
+                // arrange
+
+                Restaurant a = Restaurant.builder().id(3L).name("Lilly's").description("Tacos").build();
+                Restaurant b = Restaurant.builder().id(4L).name("Super Cucas").description("Burritos and tacos").build();
+                Restaurant c = Restaurant.builder().id(9L).name("Brophy Bros").details("fish tacos").build();
+
+                when(restaurantRepository.search(eq("tacos"), eq(2L), eq(3)))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b, c)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurant/search?q=tacos&page=1&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "2"))
+                                .andReturn();
+
+                // assert
+
+                verify(restaurantRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a, b));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void last_search_page_has_no_next_page() throws Exception {
+
+                // arrange
+
+                Restaurant a = Restaurant.builder().id(3L).name("Lilly's").description("Tacos").build();
+
+                when(restaurantRepository.search(eq("tacos"), eq(0L), eq(101)))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a)));
+
+                // act
+                mockMvc.perform(get("/api/restaurant/search?q=tacos"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(ApiController.NEXT_CURSOR_HEADER));
+
+                // assert
+
+                verify(restaurantRepository, times(1)).search("tacos", 0L, 101);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void blank_search_returns_nothing_without_querying() throws Exception {
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurant/search?q=%20"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(restaurantRepository, times(0)).search(any(), anyLong(), anyInt());
+                assertEquals("[]", response.getResponse().getContentAsString());
+        }
 }
@@ -4,15 +4,19 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Transport;
+import edu.ucsb.cs156.example.entities.TransportMode;
 import edu.ucsb.cs156.example.repositories.TransportRepository;
+import edu.ucsb.cs156.example.services.TransportModeService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -26,6 +30,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -41,6 +46,9 @@ public class TransportControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        TransportModeService transportModes;
+
         // Authorization tests for /api/transport/admin/all
 
         @Test
@@ -162,18 +170,215 @@ public class TransportControllerTests extends ControllerTestCase {
                 assertEquals(expectedJson, responseString);
         }
 
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_keyset_page_with_a_next_cursor() throws Exception {
+
+                // arrange
+
+                Transport a = Transport.builder().id(3L).build();
+                Transport b = Transport.builder().id(4L).build();
+                Transport c = Transport.builder().id(5L).build();
+
+                when(transportRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b, c)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/transport/all?after=2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "4"))
+                                .andReturn();
+
+                // assert
+
+                verify(transportRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a, b));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void last_keyset_page_has_no_next_cursor_and_limit_is_capped() throws Exception {
+
+                // arrange
+
+                Transport a = Transport.builder().id(3L).build();
+
+                when(transportRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 501))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/transport/all?after=2&limit=1000000"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(ApiController.NEXT_CURSOR_HEADER))
+                                .andReturn();
+
+                // assert
+
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void max_cost_filters_in_id_order() throws Exception {
+
+                // arrange
+
+                Transport a = Transport.builder().id(3L).cost("$1.75").costCents(175L).build();
+
+                when(transportRepository.findByCostCentsLessThanEqualAndIdGreaterThanOrderByIdAsc(
+                                eq(500L), eq(0L), eq(PageRequest.of(0, 101))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/transport/all?maxCost=5"))
+                                .andExpect(status().isOk())
+                                .andReturn();
+
+                // assert
+
+                verify(transportRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void max_cost_must_not_be_negative() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(get("/api/transport/all?maxCost=-1"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                verify(transportRepository, times(0)).findByCostCentsLessThanEqualAndIdGreaterThanOrderByIdAsc(
+                                anyLong(), anyLong(), any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("InvalidParameterException", json.get("type"));
+                assertEquals("Parameter maxCost must not be negative but was -1", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void unknown_sort_is_a_bad_request() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(get("/api/transport/all?sort=name"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                verify(transportRepository, times(0)).findAll();
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("InvalidParameterException", json.get("type"));
+                assertEquals("Parameter sort must be id or cost but was name", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void max_cost_too_large_for_cents_is_a_bad_request() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(get("/api/transport/all?maxCost=1e30&sort=cost"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                verify(transportRepository, times(0)).findByCostCentsLessThanEqualOrderByCostCentsAscIdAsc(
+                                anyLong(), any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("InvalidParameterException", json.get("type"));
+                assertEquals("Parameter maxCost must fit in a long number of cents but was 1E+30",
+                                json.get("message"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void sort_by_cost_returns_the_cheapest_first_with_a_next_cursor() throws Exception {
+
+                // arrange
+
+                Transport a = Transport.builder().id(7L).cost("Free").costCents(0L).build();
+                Transport b = Transport.builder().id(3L).cost("$1.75").costCents(175L).build();
+
+                when(transportRepository.findByCostCentsLessThanEqualOrderByCostCentsAscIdAsc(
+                                eq(499L), eq(PageRequest.of(0, 2))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/transport/all?maxCost=4.99&sort=cost&limit=1"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "7"))
+                                .andReturn();
+
+                // assert
+
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void sort_by_cost_continues_after_the_cost_of_the_cursor_row() throws Exception {
+
+                // arrange
+
+                Transport cursor = Transport.builder().id(7L).cost("Free").costCents(0L).build();
+                Transport b = Transport.builder().id(3L).cost("$1.75").costCents(175L).build();
+
+                when(transportRepository.findById(eq(7L))).thenReturn(Optional.of(cursor));
+                when(transportRepository.findByCostAfter(
+                                eq(Long.MAX_VALUE), eq(0L), eq(7L), eq(PageRequest.of(0, 101))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(b)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/transport/all?sort=cost&after=7"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(ApiController.NEXT_CURSOR_HEADER))
+                                .andReturn();
+
+                // assert
+
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(b));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void sort_by_cost_after_a_missing_transport_is_not_found() throws Exception {
+
+                // arrange
+
+                when(transportRepository.findById(eq(7L))).thenReturn(Optional.empty());
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/transport/all?sort=cost&after=7"))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("EntityNotFoundException", json.get("type"));
+                assertEquals("Transport with id 7 not found", json.get("message"));
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void an_admin_user_can_post_a_new_transport() throws Exception {
                 // arrange
 
 
+                TransportMode kart = TransportMode.builder().id(1).name("Kart").build();
+
                 Transport transport1 = Transport.builder()
                                 .name("Standard Kart")
                                 .mode("Kart")
+                                .modeRef(kart)
                                 .cost("1000")
                                 .build();
 
+                when(transportModes.encode(eq("Kart"))).thenReturn(kart);
                 when(transportRepository.save(eq(transport1))).thenReturn(transport1);
 
                 // act
@@ -183,6 +388,7 @@ public class TransportControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
+                verify(transportModes, times(1)).encode("Kart");
                 verify(transportRepository, times(1)).save(transport1);
                 String expectedJson = mapper.writeValueAsString(transport1);
                 String responseString = response.getResponse().getContentAsString();
@@ -306,4 +512,146 @@ public class TransportControllerTests extends ControllerTestCase {
                 assertEquals("Transport with id 67 not found", json.get("message"));
 
         }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_in_bulk() throws Exception {
+                mockMvc.perform(post("/api/transport/bulk"))
+                                .andExpect(status().is(403)); // only admins can post
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_transports_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+                // arrange
+
+                List<Transport> incoming = List.of(
+                                Transport.builder()
+                                                .id(7L)
+                                                .name("Standard Kart")
+                                                .mode("Kart")
+                                                .cost("1000")
+                                                .build(),
+                                Transport.builder()
+                                                .id(8L)
+                                                .name("Bike")
+                                                .mode("Bicycle")
+                                                .cost("250")
+                                                .build());
+                List<Transport> expected = List.of(
+                                Transport.builder()
+                                                .name("Standard Kart")
+                                                .mode("Kart")
+                                                .cost("1000")
+                                                .build(),
+                                Transport.builder()
+                                                .name("Bike")
+                                                .mode("Bicycle")
+                                                .cost("250")
+                                                .build());
+                List<Transport> saved = List.of(
+                                Transport.builder()
+                                                .id(51L)
+                                                .name("Standard Kart")
+                                                .mode("Kart")
+                                                .cost("1000")
+                                                .build(),
+                                Transport.builder()
+                                                .id(52L)
+                                                .name("Bike")
+                                                .mode("Bicycle")
+                                                .cost("250")
+                                                .build());
+
+                when(transportRepository.saveAll(eq(expected))).thenReturn(saved);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/transport/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(incoming))
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(transportModes, times(1)).encode("Kart");
+                verify(transportModes, times(1)).encode("Bicycle");
+                verify(transportRepository, times(1)).saveAll(expected);
+                String expectedJson = mapper.writeValueAsString(saved);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_answers_304_without_querying_when_the_etag_still_matches() throws Exception {
+                // arrange
+                String etag = mockMvc.perform(get("/api/transport/all"))
+                                .andExpect(status().isOk()).andReturn()
+                                .getResponse().getHeader("ETag");
+
+                // act
+                mockMvc.perform(get("/api/transport/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(content().string(""));
+
+                // assert
+                verify(transportRepository, times(1)).findAll();
+        }
+
+        // Tests for GET /api/transport/bymode
+
+        @Test
+        public void logged_out_users_cannot_get_by_mode() throws Exception {
+                mockMvc.perform(get("/api/transport/bymode?mode=bus"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_page_of_one_mode() throws Exception {
+
+                // arrange
+
+                TransportMode bus = TransportMode.builder().id(3).name("bus").build();
+                Transport a = Transport.builder().id(4L).mode("bus").modeRef(bus).build();
+                Transport b = Transport.builder().id(9L).mode("bus").modeRef(bus).build();
+
+                when(transportModes.find(eq("bus"))).thenReturn(Optional.of(bus));
+                when(transportRepository.findByModeRefAndIdGreaterThanOrderByIdAsc(eq(bus), eq(2L), eq(PageRequest.of(0, 2))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/transport/bymode?mode=bus&after=2&limit=1"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "4"))
+                                .andReturn();
+
+                // assert
+
+                verify(transportRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void an_unknown_mode_has_no_transports_and_skips_the_table() throws Exception {
+
+                // arrange
+
+                when(transportModes.find(eq("zeppelin"))).thenReturn(Optional.empty());
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/transport/bymode?mode=zeppelin"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(transportRepository, times(0)).findByModeRefAndIdGreaterThanOrderByIdAsc(any(), eq(0L), any());
+                assertEquals("[]", response.getResponse().getContentAsString());
+        }
 }
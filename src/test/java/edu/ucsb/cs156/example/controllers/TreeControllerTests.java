@@ -4,15 +4,23 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Tree;
+import edu.ucsb.cs156.example.entities.TreeCategory;
+import edu.ucsb.cs156.example.errors.CategoryHierarchyException;
+import edu.ucsb.cs156.example.models.CategoryCount;
+import edu.ucsb.cs156.example.models.TreeCategoryFacet;
+import edu.ucsb.cs156.example.repositories.TreeCategoryRepository;
 import edu.ucsb.cs156.example.repositories.TreeRepository;
+import edu.ucsb.cs156.example.services.TreeFacetService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -27,7 +35,9 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -42,6 +52,12 @@ public class TreeControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        TreeCategoryRepository treeCategoryRepository;
+
+        @MockBean
+        TreeFacetService treeFacets;
+
         // Authorization tests for /api/tree/admin/all
 
         @Test
@@ -160,6 +176,57 @@ public class TreeControllerTests extends ControllerTestCase {
                 assertEquals(expectedJson, responseString);
         }
 
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_keyset_page_with_a_next_cursor() throws Exception {
+
+                // arrange
+
+                Tree a = Tree.builder().id(3L).build();
+                Tree b = Tree.builder().id(4L).build();
+                Tree c = Tree.builder().id(5L).build();
+
+                when(treeRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b, c)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/tree/all?after=2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "4"))
+                                .andReturn();
+
+                // assert
+
+                verify(treeRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a, b));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void last_keyset_page_has_no_next_cursor_and_limit_is_capped() throws Exception {
+
+                // arrange
+
+                Tree a = Tree.builder().id(3L).build();
+
+                when(treeRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 501))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/tree/all?after=2&limit=1000000"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(ApiController.NEXT_CURSOR_HEADER))
+                                .andReturn();
+
+                // assert
+
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void an_admin_user_can_post_a_new_tree() throws Exception {
@@ -181,6 +248,7 @@ public class TreeControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(treeRepository, times(1)).save(tree1);
+                verify(treeFacets, times(1)).added(tree1);
                 String expectedJson = mapper.writeValueAsString(tree1);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -208,6 +276,7 @@ public class TreeControllerTests extends ControllerTestCase {
                 // assert
                 verify(treeRepository, times(1)).findById(15L);
                 verify(treeRepository, times(1)).delete(any());
+                verify(treeFacets, times(1)).removed(tree1);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Tree with id 15 deleted", json.get("message"));
@@ -265,6 +334,7 @@ public class TreeControllerTests extends ControllerTestCase {
                 // assert
                 verify(treeRepository, times(1)).findById(67L);
                 verify(treeRepository, times(1)).save(treeEdited); // should be saved with correct user
+                verify(treeFacets, times(1)).changed("Decidous", treeEdited);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -299,4 +369,347 @@ public class TreeControllerTests extends ControllerTestCase {
                 assertEquals("Tree with id 67 not found", json.get("message"));
 
         }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_in_bulk() throws Exception {
+                mockMvc.perform(post("/api/tree/bulk"))
+                                .andExpect(status().is(403)); // only admins can post
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_trees_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+                // arrange
+
+                List<Tree> incoming = List.of(
+                                Tree.builder()
+                                                .id(7L)
+                                                .name("Birch")
+                                                .category("Decidous")
+                                                .build(),
+                                Tree.builder()
+                                                .id(8L)
+                                                .name("Pine")
+                                                .category("Evergreen")
+                                                .build());
+                List<Tree> expected = List.of(
+                                Tree.builder()
+                                                .name("Birch")
+                                                .category("Decidous")
+                                                .build(),
+                                Tree.builder()
+                                                .name("Pine")
+                                                .category("Evergreen")
+                                                .build());
+                List<Tree> saved = List.of(
+                                Tree.builder()
+                                                .id(51L)
+                                                .name("Birch")
+                                                .category("Decidous")
+                                                .build(),
+                                Tree.builder()
+                                                .id(52L)
+                                                .name("Pine")
+                                                .category("Evergreen")
+                                                .build());
+
+                when(treeRepository.saveAll(eq(expected))).thenReturn(saved);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/tree/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(incoming))
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(treeRepository, times(1)).saveAll(expected);
+                verify(treeFacets, times(1)).addedAll(saved);
+                String expectedJson = mapper.writeValueAsString(saved);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_answers_304_without_querying_when_the_etag_still_matches() throws Exception {
+                // arrange
+                String etag = mockMvc.perform(get("/api/tree/all"))
+                                .andExpect(status().isOk()).andReturn()
+                                .getResponse().getHeader("ETag");
+
+                // act
+                mockMvc.perform(get("/api/tree/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(content().string(""));
+
+                // assert
+                verify(treeRepository, times(1)).findAll();
+        }
+
+        // Tests for the category hierarchy
+
+        @Test
+        public void logged_out_users_cannot_get_categories() throws Exception {
+                mockMvc.perform(get("/api/tree/categories"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_move_categories() throws Exception {
+                mockMvc.perform(put("/api/tree/categories/move?id=2&parentId=1").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_categories_with_subtree_counts() throws Exception {
+
+                // arrange
+
+                List<TreeCategoryFacet> facets = List.of(
+                                TreeCategoryFacet.builder().id(1L).name("Conifer").count(3L).build(),
+                                TreeCategoryFacet.builder().id(2L).name("Pine").parentId(1L).count(2L).build());
+
+                List<TreeCategory> categories = List.of(
+                                TreeCategory.builder().id(1L).name("Conifer").build(),
+                                TreeCategory.builder().id(2L).name("Pine").parentId(1L).build());
+
+                when(treeCategoryRepository.findAll()).thenReturn(categories);
+                when(treeFacets.getCategoryFacets(categories)).thenReturn(facets);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/tree/categories"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                String expectedJson = mapper.writeValueAsString(facets);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_page_of_trees_under_a_category() throws Exception {
+
+                // arrange
+
+                Tree a = Tree.builder().id(3L).name("Torrey pine").category("Pine").build();
+                Tree b = Tree.builder().id(4L).name("Blue spruce").category("Spruce").build();
+
+                when(treeCategoryRepository.existsById(eq(1L))).thenReturn(true);
+                when(treeRepository.findInCategorySubtree(eq(1L), eq(2L), eq(PageRequest.of(0, 2))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/tree/bycategory?categoryId=1&after=2&limit=1"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "3"))
+                                .andReturn();
+
+                // assert
+
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void trees_under_a_missing_category_is_not_found() throws Exception {
+
+                // arrange
+
+                when(treeCategoryRepository.existsById(eq(9L))).thenReturn(false);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/tree/bycategory?categoryId=9"))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("TreeCategory with id 9 not found", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_a_category_under_a_parent() throws Exception {
+
+                // arrange
+
+                TreeCategory conifer = TreeCategory.builder().id(1L).name("Conifer").build();
+                TreeCategory pine = TreeCategory.builder().id(2L).name("Pine").parentId(1L).build();
+
+                when(treeCategoryRepository.findById(eq(1L))).thenReturn(Optional.of(conifer));
+                when(treeCategoryRepository.addCategory(eq("Pine"), eq(1L))).thenReturn(pine);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/tree/categories/post?name=Pine&parentId=1")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(treeCategoryRepository, times(1)).addCategory("Pine", 1L);
+                String expectedJson = mapper.writeValueAsString(pine);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void posting_a_category_name_that_exists_is_a_conflict() throws Exception {
+
+                // arrange
+
+                when(treeCategoryRepository.addCategory(eq("Pine"), eq(null)))
+                                .thenThrow(new CategoryHierarchyException("TreeCategory named Pine already exists"));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/tree/categories/post?name=Pine")
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("CategoryHierarchyException", json.get("type"));
+                assertEquals("TreeCategory named Pine already exists", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_move_a_category_to_the_top_level() throws Exception {
+
+                // arrange
+
+                TreeCategory pine = TreeCategory.builder().id(2L).name("Pine").parentId(1L).build();
+
+                when(treeCategoryRepository.findById(eq(2L))).thenReturn(Optional.of(pine));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/tree/categories/move?id=2")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(treeCategoryRepository, times(1)).moveCategory(2L, null);
+                String expectedJson = mapper.writeValueAsString(TreeCategory.builder().id(2L).name("Pine").build());
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void moving_a_category_below_itself_is_a_conflict() throws Exception {
+
+                // arrange
+
+                TreeCategory conifer = TreeCategory.builder().id(1L).name("Conifer").build();
+                TreeCategory pine = TreeCategory.builder().id(2L).name("Pine").parentId(1L).build();
+
+                when(treeCategoryRepository.findById(eq(1L))).thenReturn(Optional.of(conifer));
+                when(treeCategoryRepository.findById(eq(2L))).thenReturn(Optional.of(pine));
+                doThrow(new CategoryHierarchyException("TreeCategory 1 cannot be moved under 2, which is itself or below it"))
+                                .when(treeCategoryRepository).moveCategory(1L, 2L);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/tree/categories/move?id=1&parentId=2")
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("CategoryHierarchyException", json.get("type"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void moving_under_a_missing_parent_is_not_found() throws Exception {
+
+                // arrange
+
+                TreeCategory pine = TreeCategory.builder().id(2L).name("Pine").parentId(1L).build();
+
+                when(treeCategoryRepository.findById(eq(2L))).thenReturn(Optional.of(pine));
+                when(treeCategoryRepository.findById(eq(7L))).thenReturn(Optional.empty());
+
+                // act
+                mockMvc.perform(
+                                put("/api/tree/categories/move?id=2&parentId=7")
+                                                .with(csrf()))
+                                .andExpect(status().isNotFound());
+
+                // assert
+
+                verify(treeCategoryRepository, times(0)).moveCategory(anyLong(), any());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_delete_a_category() throws Exception {
+
+                // arrange
+
+                TreeCategory spruce = TreeCategory.builder().id(3L).name("Spruce").parentId(1L).build();
+
+                when(treeCategoryRepository.findById(eq(3L))).thenReturn(Optional.of(spruce));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/tree/categories?id=3")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(treeCategoryRepository, times(1)).removeCategory(3L);
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("TreeCategory with id 3 deleted", json.get("message"));
+        }
+
+        // Tests for GET /api/tree/facets
+
+        @Test
+        public void logged_out_users_cannot_get_facets() throws Exception {
+                mockMvc.perform(get("/api/tree/facets"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_facets_without_reading_the_table() throws Exception {
+
+                // arrange
+
+                List<CategoryCount> facets = List.of(
+                                CategoryCount.builder().category("Decidous").count(4L).build(),
+                                CategoryCount.builder().category("Evergreen").count(2L).build());
+
+                when(treeFacets.getFacets()).thenReturn(facets);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/tree/facets"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(treeRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(facets);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
 }
@@ -3,16 +3,21 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.entities.ArchivedUCSBDate;
 import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.repositories.ArchivedUCSBDateRepository;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.services.UpcomingDatesService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -27,6 +32,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -39,6 +45,12 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
         @MockBean
         UCSBDateRepository ucsbDateRepository;
 
+        @MockBean
+        ArchivedUCSBDateRepository archivedUCSBDateRepository;
+
+        @MockBean
+        UpcomingDatesService upcomingDates;
+
         @MockBean
         UserRepository userRepository;
 
@@ -166,6 +178,57 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                 assertEquals(expectedJson, responseString);
         }
 
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_keyset_page_with_a_next_cursor() throws Exception {
+
+                // arrange
+
+                UCSBDate a = UCSBDate.builder().id(3L).build();
+                UCSBDate b = UCSBDate.builder().id(4L).build();
+                UCSBDate c = UCSBDate.builder().id(5L).build();
+
+                when(ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b, c)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all?after=2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "4"))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDateRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a, b));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void last_keyset_page_has_no_next_cursor_and_limit_is_capped() throws Exception {
+
+                // arrange
+
+                UCSBDate a = UCSBDate.builder().id(3L).build();
+
+                when(ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 501))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all?after=2&limit=1000000"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(ApiController.NEXT_CURSOR_HEADER))
+                                .andReturn();
+
+                // assert
+
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void an_admin_user_can_post_a_new_ucsbdate() throws Exception {
@@ -189,6 +252,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(ucsbDateRepository, times(1)).save(ucsbDate1);
+                verify(upcomingDates, times(1)).put(ucsbDate1);
                 String expectedJson = mapper.writeValueAsString(ucsbDate1);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -218,6 +282,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                 // assert
                 verify(ucsbDateRepository, times(1)).findById(15L);
                 verify(ucsbDateRepository, times(1)).delete(any());
+                verify(upcomingDates, times(1)).remove(15L);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDate with id 15 deleted", json.get("message"));
@@ -279,6 +344,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                 // assert
                 verify(ucsbDateRepository, times(1)).findById(67L);
                 verify(ucsbDateRepository, times(1)).save(ucsbDateEdited); // should be saved with correct user
+                verify(upcomingDates, times(1)).put(ucsbDateEdited);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -315,4 +381,321 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                 assertEquals("UCSBDate with id 67 not found", json.get("message"));
 
         }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_in_bulk() throws Exception {
+                mockMvc.perform(post("/api/ucsbdates/bulk"))
+                                .andExpect(status().is(403)); // only admins can post
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_dates_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+                // arrange
+
+                List<UCSBDate> incoming = List.of(
+                                UCSBDate.builder()
+                                                .id(7L)
+                                                .name("firstDayOfClasses")
+                                                .quarterYYYYQ("20222")
+                                                .localDateTime(LocalDateTime.parse("2022-03-28T00:00:00"))
+                                                .build(),
+                                UCSBDate.builder()
+                                                .id(8L)
+                                                .name("lastDayOfClasses")
+                                                .quarterYYYYQ("20222")
+                                                .localDateTime(LocalDateTime.parse("2022-06-03T00:00:00"))
+                                                .build());
+                List<UCSBDate> expected = List.of(
+                                UCSBDate.builder()
+                                                .name("firstDayOfClasses")
+                                                .quarterYYYYQ("20222")
+                                                .localDateTime(LocalDateTime.parse("2022-03-28T00:00:00"))
+                                                .build(),
+                                UCSBDate.builder()
+                                                .name("lastDayOfClasses")
+                                                .quarterYYYYQ("20222")
+                                                .localDateTime(LocalDateTime.parse("2022-06-03T00:00:00"))
+                                                .build());
+                List<UCSBDate> saved = List.of(
+                                UCSBDate.builder()
+                                                .id(51L)
+                                                .name("firstDayOfClasses")
+                                                .quarterYYYYQ("20222")
+                                                .localDateTime(LocalDateTime.parse("2022-03-28T00:00:00"))
+                                                .build(),
+                                UCSBDate.builder()
+                                                .id(52L)
+                                                .name("lastDayOfClasses")
+                                                .quarterYYYYQ("20222")
+                                                .localDateTime(LocalDateTime.parse("2022-06-03T00:00:00"))
+                                                .build());
+
+                when(ucsbDateRepository.saveAll(eq(expected))).thenReturn(saved);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsbdates/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(incoming))
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(1)).saveAll(expected);
+                verify(upcomingDates, times(1)).putAll(saved);
+                String expectedJson = mapper.writeValueAsString(saved);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_answers_304_without_querying_when_the_etag_still_matches() throws Exception {
+                // arrange
+                String etag = mockMvc.perform(get("/api/ucsbdates/all"))
+                                .andExpect(status().isOk()).andReturn()
+                                .getResponse().getHeader("ETag");
+
+                // act
+                mockMvc.perform(get("/api/ucsbdates/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andExpect(content().string(""));
+
+                // assert
+                verify(ucsbDateRepository, times(1)).findAll();
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_asks_browsers_to_revalidate_instead_of_not_storing() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                assertEquals("no-cache, private", response.getResponse().getHeader("Cache-Control"));
+                assertEquals(null, response.getResponse().getHeader("Pragma"));
+                assertEquals(null, response.getResponse().getHeader("Expires"));
+        }
+
+        @Test
+        public void logged_out_users_cannot_get_a_quarter() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/quarter?q=20222"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_the_dates_in_a_quarter() throws Exception {
+                // arrange
+                UCSBDate ucsbDate1 = UCSBDate.builder()
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-04-03T00:00:00"))
+                                .build();
+
+                UCSBDate ucsbDate2 = UCSBDate.builder()
+                                .name("lastDayOfClasses")
+                                .quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-06-10T00:00:00"))
+                                .build();
+
+                List<UCSBDate> expectedDates = List.of(ucsbDate1, ucsbDate2);
+                when(ucsbDateRepository.findInQuarter(eq("20222"), eq(PageRequest.of(0, 101)))).thenReturn(expectedDates);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/quarter?q=20222"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(1)).findInQuarter("20222", PageRequest.of(0, 101));
+                verify(ucsbDateRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(expectedDates);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void quarter_pages_continue_after_the_cursor_in_date_order() throws Exception {
+                // arrange
+                LocalDateTime firstDay = LocalDateTime.parse("2022-04-03T00:00:00");
+                UCSBDate cursor = UCSBDate.builder().id(7L).quarterYYYYQ("20222").localDateTime(firstDay).build();
+                UCSBDate a = UCSBDate.builder().id(3L).quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-05-01T00:00:00")).build();
+                UCSBDate b = UCSBDate.builder().id(9L).quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-06-10T00:00:00")).build();
+
+                when(ucsbDateRepository.findById(eq(7L))).thenReturn(Optional.of(cursor));
+                when(ucsbDateRepository.findInQuarterAfter(eq("20222"), eq(firstDay), eq(7L), eq(PageRequest.of(0, 2))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/quarter?q=20222&after=7&limit=1"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "3"))
+                                .andReturn();
+
+                // assert
+                String expectedJson = mapper.writeValueAsString(List.of(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @Test
+        public void logged_out_users_cannot_get_a_range() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/range?from=2022-04-01T00:00:00&to=2022-05-01T00:00:00"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_the_dates_in_a_range() throws Exception {
+                // arrange
+                LocalDateTime from = LocalDateTime.parse("2022-04-01T00:00:00");
+                LocalDateTime to = LocalDateTime.parse("2022-05-01T00:00:00");
+
+                UCSBDate ucsbDate1 = UCSBDate.builder()
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-04-03T00:00:00"))
+                                .build();
+
+                List<UCSBDate> expectedDates = List.of(ucsbDate1);
+                when(ucsbDateRepository.findByLocalDateTimeGreaterThanEqualAndLocalDateTimeLessThanOrderByLocalDateTimeAscIdAsc(
+                                eq(from), eq(to), eq(PageRequest.of(0, 101))))
+                                .thenReturn(expectedDates);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/range?from=2022-04-01T00:00:00&to=2022-05-01T00:00:00"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(1))
+                                .findByLocalDateTimeGreaterThanEqualAndLocalDateTimeLessThanOrderByLocalDateTimeAscIdAsc(
+                                                from, to, PageRequest.of(0, 101));
+                String expectedJson = mapper.writeValueAsString(expectedDates);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @Test
+        public void logged_out_users_cannot_get_upcoming() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/upcoming"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_upcoming_dates_from_the_index() throws Exception {
+                // arrange
+                UCSBDate ucsbDate1 = UCSBDate.builder()
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-04-03T00:00:00"))
+                                .build();
+
+                List<UCSBDate> expectedDates = List.of(ucsbDate1);
+                when(upcomingDates.upcoming(any(LocalDateTime.class), eq(3))).thenReturn(expectedDates);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/upcoming?n=3"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(upcomingDates, times(1)).upcoming(any(LocalDateTime.class), eq(3));
+                verify(ucsbDateRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(expectedDates);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void upcoming_rejects_an_n_below_one() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/upcoming?n=0"))
+                                .andExpect(status().isBadRequest()).andReturn();
+                mockMvc.perform(get("/api/ucsbdates/upcoming?n=-1"))
+                                .andExpect(status().isBadRequest());
+
+                // assert
+                verify(upcomingDates, times(0)).upcoming(any(LocalDateTime.class), anyInt());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("InvalidParameterException", json.get("type"));
+                assertEquals("Parameter n must be at least 1 but was 0", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_leaves_out_archived_dates_unless_asked() throws Exception {
+                // act
+                mockMvc.perform(get("/api/ucsbdates/all"))
+                                .andExpect(status().isOk());
+
+                // assert
+                verify(ucsbDateRepository, times(1)).findAll();
+                verify(archivedUCSBDateRepository, times(0)).findAll();
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_all_dates_including_archived_ones() throws Exception {
+                // arrange
+                UCSBDate current = UCSBDate.builder()
+                                .id(60L)
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20232")
+                                .localDateTime(LocalDateTime.parse("2023-04-03T00:00:00"))
+                                .build();
+                ArchivedUCSBDate archived = ArchivedUCSBDate.builder()
+                                .id(7L)
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20192")
+                                .localDateTime(LocalDateTime.parse("2019-04-01T00:00:00"))
+                                .build();
+
+                when(ucsbDateRepository.findAll()).thenReturn(List.of(current));
+                when(archivedUCSBDateRepository.findAll()).thenReturn(List.of(archived));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all?includeArchived=true"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                String expectedJson = mapper.writeValueAsString(List.of(current, archived.toUCSBDate()));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void keyset_page_including_archived_dates_merges_both_tables_by_id() throws Exception {
+                // arrange
+                UCSBDate a = UCSBDate.builder().id(3L).build();
+                UCSBDate c = UCSBDate.builder().id(6L).build();
+                ArchivedUCSBDate b = ArchivedUCSBDate.builder().id(4L).build();
+                ArchivedUCSBDate d = ArchivedUCSBDate.builder().id(7L).build();
+
+                when(ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, c)));
+                when(archivedUCSBDateRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(b, d)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all?after=2&limit=2&includeArchived=true"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "4"))
+                                .andReturn();
+
+                // assert
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a, b.toUCSBDate()));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
 }
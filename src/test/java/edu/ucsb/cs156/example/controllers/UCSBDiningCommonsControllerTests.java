@@ -5,14 +5,18 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.services.DiningCommonsAmenityIndexService;
+import edu.ucsb.cs156.example.services.DiningCommonsLocatorService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -25,6 +29,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -37,6 +43,12 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
         @MockBean
         UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
 
+        @MockBean
+        DiningCommonsLocatorService diningCommonsLocator;
+
+        @MockBean
+        DiningCommonsAmenityIndexService diningCommonsAmenities;
+
         @MockBean
         UserRepository userRepository;
 
@@ -172,6 +184,57 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 assertEquals(expectedJson, responseString);
         }
 
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_keyset_page_with_a_next_cursor() throws Exception {
+
+                // arrange
+
+                UCSBDiningCommons a = UCSBDiningCommons.builder().code("c3").build();
+                UCSBDiningCommons b = UCSBDiningCommons.builder().code("c4").build();
+                UCSBDiningCommons c = UCSBDiningCommons.builder().code("c5").build();
+
+                when(ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(eq("c2"), eq(PageRequest.of(0, 3))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a, b, c)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all?after=c2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(ApiController.NEXT_CURSOR_HEADER, "c4"))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a, b));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void last_keyset_page_has_no_next_cursor_and_limit_is_capped() throws Exception {
+
+                // arrange
+
+                UCSBDiningCommons a = UCSBDiningCommons.builder().code("c3").build();
+
+                when(ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(eq("c2"), eq(PageRequest.of(0, 501))))
+                                .thenReturn(new ArrayList<>(Arrays.asList(a)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all?after=c2&limit=1000000"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(ApiController.NEXT_CURSOR_HEADER))
+                                .andReturn();
+
+                // assert
+
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(a));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void an_admin_user_can_post_a_new_commons() throws Exception {
@@ -197,6 +260,8 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(ucsbDiningCommonsRepository, times(1)).save(ortega);
+                verify(diningCommonsLocator, times(1)).put(ortega);
+                verify(diningCommonsAmenities, times(1)).put(ortega);
                 String expectedJson = mapper.writeValueAsString(ortega);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -228,6 +293,8 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 // assert
                 verify(ucsbDiningCommonsRepository, times(1)).findById("portola");
                 verify(ucsbDiningCommonsRepository, times(1)).delete(any());
+                verify(diningCommonsLocator, times(1)).remove("portola");
+                verify(diningCommonsAmenities, times(1)).remove("portola");
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommons with id portola deleted", json.get("message"));
@@ -294,6 +361,8 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 // assert
                 verify(ucsbDiningCommonsRepository, times(1)).findById("carrillo");
                 verify(ucsbDiningCommonsRepository, times(1)).save(carrilloEdited); // should be saved with updated info
+                verify(diningCommonsLocator, times(1)).put(carrilloEdited);
+                verify(diningCommonsAmenities, times(1)).put(carrilloEdited);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -332,4 +401,132 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
 
         }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_answers_304_without_querying_when_the_etag_still_matches() throws Exception {
+                // arrange
+                String etag = mockMvc.perform(get("/api/ucsbdiningcommons/all"))
+                                .andExpect(status().isOk()).andReturn()
+                                .getResponse().getHeader("ETag");
+
+                // act
+                mockMvc.perform(get("/api/ucsbdiningcommons/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(content().string(""));
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(1)).findAll();
+        }
+
+        @Test
+        public void logged_out_users_cannot_get_nearest() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommons/nearest?lat=34.41&lon=-119.85"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_the_nearest_commons_from_the_index() throws Exception {
+                // arrange
+                UCSBDiningCommons ortega = UCSBDiningCommons.builder()
+                                .name("Ortega")
+                                .code("ortega")
+                                .hasSackMeal(true)
+                                .hasTakeOutMeal(true)
+                                .hasDiningCam(true)
+                                .latitude(34.410987)
+                                .longitude(-119.84709)
+                                .build();
+
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder()
+                                .name("Carrillo")
+                                .code("carrillo")
+                                .hasSackMeal(false)
+                                .hasTakeOutMeal(false)
+                                .hasDiningCam(true)
+                                .latitude(34.409953)
+                                .longitude(-119.85277)
+                                .build();
+
+                List<UCSBDiningCommons> expected = List.of(ortega, carrillo);
+                when(diningCommonsLocator.nearest(34.411, -119.847, 2)).thenReturn(expected);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/nearest?lat=34.411&lon=-119.847&k=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(diningCommonsLocator, times(1)).nearest(34.411, -119.847, 2);
+                verify(ucsbDiningCommonsRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(expected);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void nearest_defaults_to_one_commons_and_caps_k() throws Exception {
+                // act
+                mockMvc.perform(get("/api/ucsbdiningcommons/nearest?lat=34.411&lon=-119.847"))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdiningcommons/nearest?lat=34.411&lon=-119.847&k=100000"))
+                                .andExpect(status().isOk());
+
+                // assert
+                verify(diningCommonsLocator, times(1)).nearest(34.411, -119.847, 1);
+                verify(diningCommonsLocator, times(1)).nearest(34.411, -119.847, 500);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void nearest_rejects_a_k_below_one() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/nearest?lat=34.411&lon=-119.847&k=0"))
+                                .andExpect(status().isBadRequest()).andReturn();
+                mockMvc.perform(get("/api/ucsbdiningcommons/nearest?lat=34.411&lon=-119.847&k=-3"))
+                                .andExpect(status().isBadRequest());
+
+                // assert
+                verify(diningCommonsLocator, times(0)).nearest(anyDouble(), anyDouble(), anyInt());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("InvalidParameterException", json.get("type"));
+                assertEquals("Parameter k must be at least 1 but was 0", json.get("message"));
+        }
+
+        @Test
+        public void logged_out_users_cannot_filter() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommons/filter?hasTakeOutMeal=true"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_filter_commons_by_amenities() throws Exception {
+                // arrange
+                UCSBDiningCommons ortega = UCSBDiningCommons.builder()
+                                .name("Ortega")
+                                .code("ortega")
+                                .hasSackMeal(true)
+                                .hasTakeOutMeal(true)
+                                .hasDiningCam(true)
+                                .latitude(34.410987)
+                                .longitude(-119.84709)
+                                .build();
+
+                List<UCSBDiningCommons> expected = List.of(ortega);
+                when(diningCommonsAmenities.filter(null, true, true)).thenReturn(expected);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/filter?hasTakeOutMeal=true&hasDiningCam=true"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(diningCommonsAmenities, times(1)).filter(null, true, true);
+                verify(ucsbDiningCommonsRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(expected);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
 }
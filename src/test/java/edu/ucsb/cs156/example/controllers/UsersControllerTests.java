@@ -9,18 +9,23 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import javax.persistence.EntityManager;
+
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.stream.Stream;
 
 @WebMvcTest(controllers = UsersController.class)
 @Import(TestConfig.class)
@@ -29,6 +34,9 @@ public class UsersControllerTests extends ControllerTestCase {
   @MockBean
   UserRepository userRepository;
 
+  @MockBean
+  EntityManager entityManager;
+
   @Test
   public void users__logged_out() throws Exception {
     mockMvc.perform(get("/api/admin/users"))
@@ -55,7 +63,7 @@ public class UsersControllerTests extends ControllerTestCase {
     ArrayList<User> expectedUsers = new ArrayList<>();
     expectedUsers.addAll(Arrays.asList(u1, u2, u));
 
-    when(userRepository.findAll()).thenReturn(expectedUsers);
+    when(userRepository.streamAllByOrderByIdAsc()).thenReturn(expectedUsers.stream());
     String expectedJson = mapper.writeValueAsString(expectedUsers);
     
     // act
@@ -65,9 +73,30 @@ public class UsersControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(userRepository, times(1)).findAll();
+    verify(userRepository, times(1)).streamAllByOrderByIdAsc();
+    verify(entityManager, times(3)).detach(any(User.class));
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
 
   }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users__admin_logged_in_no_users() throws Exception {
+
+    // arrange
+
+    when(userRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.empty());
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+        .andReturn();
+
+    // assert
+
+    assertEquals("[]", response.getResponse().getContentAsString());
+  }
 }
@@ -0,0 +1,44 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import edu.ucsb.cs156.example.entities.Book;
+
+@DataJpaTest
+class BookRepositoryTests {
+
+  @Autowired
+  BookRepository bookRepository;
+
+  @Autowired
+  TestEntityManager testEntityManager;
+
+  private Book save(String name, String author) {
+    return testEntityManager.persistAndFlush(
+        Book.builder().name(name).author(author).genre("Fantasy").wordcount(1000).build());
+  }
+
+  @Test
+  void test_change_marker_moves_with_an_update_even_when_count_and_max_id_stay() throws Exception {
+    assertEquals("0:null:null", bookRepository.changeMarker());
+    save("The Lightning Thief", "Rick Riordan");
+    Book second = save("The Sea of Monsters", "Rick Riordan");
+
+    String before = bookRepository.changeMarker();
+    assertTrue(before.startsWith("2:" + second.getId() + ":"));
+    assertEquals(before, bookRepository.changeMarker());
+
+    Thread.sleep(2);
+    second.setName("The Sea of Monstars");
+    testEntityManager.persistAndFlush(second);
+
+    assertNotEquals(before, bookRepository.changeMarker());
+  }
+}
@@ -0,0 +1,67 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ucsb.cs156.example.config.IdSequenceInitializer;
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.entities.Tree;
+
+@DataJpaTest
+class IdSequenceTests {
+
+  @Autowired
+  BookRepository bookRepository;
+
+  @Autowired
+  TreeRepository treeRepository;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Test
+  void test_saveAll_takes_consecutive_ids_from_one_sequence_block() {
+    List<Book> books = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      books.add(Book.builder().name("book " + i).author("author").genre("genre").wordcount(i).build());
+    }
+
+    List<Book> saved = new ArrayList<>();
+    bookRepository.saveAll(books).forEach(saved::add);
+
+    assertEquals(saved.get(0).getId() + 1, saved.get(1).getId());
+    assertEquals(saved.get(1).getId() + 1, saved.get(2).getId());
+  }
+
+  // ALTER SEQUENCE commits in H2, so this test runs outside the usual
+  // rolled-back test transaction and cleans up after itself.
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void test_initializer_moves_sequence_past_existing_identity_ids() {
+    jdbcTemplate.update("INSERT INTO trees (id, name, category) VALUES (500, 'Oak', 'Deciduous')");
+    try {
+      new IdSequenceInitializer(entityManagerFactory, jdbcTemplate).advanceSequences();
+
+      Tree tree = treeRepository.save(Tree.builder().name("Elm").category("Deciduous").build());
+
+      assertTrue(tree.getId() > 500);
+    } finally {
+      jdbcTemplate.update("DELETE FROM trees");
+    }
+  }
+}
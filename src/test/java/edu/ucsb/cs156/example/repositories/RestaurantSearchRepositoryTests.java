@@ -0,0 +1,92 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.config.RestaurantSearchInitializer;
+import edu.ucsb.cs156.example.entities.Restaurant;
+
+// Creating H2's full-text index is DDL, which commits in H2, so these tests
+// run outside the usual rolled-back test transaction and clean up after
+// themselves.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RestaurantSearchRepositoryTests {
+
+  @Autowired
+  RestaurantRepository restaurantRepository;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  private static Restaurant restaurant(String name, String description, String details) {
+    return Restaurant.builder().name(name).description(description).details(details).build();
+  }
+
+  private List<String> names(String query, long offset, int limit) {
+    return restaurantRepository.search(query, offset, limit).stream()
+        .map(Restaurant::getName)
+        .collect(Collectors.toList());
+  }
+
+  @BeforeEach
+  void indexRestaurants() {
+    new RestaurantSearchInitializer(entityManagerFactory, jdbcTemplate).createSearchIndex();
+    restaurantRepository.saveAll(List.of(
+        restaurant("Lilly's", "Tacos al pastor and lengua", "Cash only, on Chapala Street"),
+        restaurant("Brophy Bros", "Fish and chips by the harbor", "Clam chowder, fish tacos"),
+        restaurant("Freebirds", "Burritos", "Open late in Isla Vista"),
+        restaurant("Super Cucas", "Burritos and tacos", "Open late")));
+  }
+
+  @AfterEach
+  void deleteRestaurants() {
+    restaurantRepository.deleteAll();
+  }
+
+  @Test
+  void test_search_matches_description_or_details() {
+    assertEquals(List.of("Lilly's", "Brophy Bros", "Super Cucas"), names("tacos", 0, 10));
+    assertEquals(List.of("Freebirds"), names("Isla", 0, 10));
+    assertEquals(List.of(), names("sushi", 0, 10));
+  }
+
+  @Test
+  void test_every_word_must_match() {
+    assertEquals(List.of("Brophy Bros"), names("fish tacos", 0, 10));
+    assertEquals(List.of("Freebirds", "Super Cucas"), names("burritos late", 0, 10));
+  }
+
+  @Test
+  void test_results_are_paged() {
+    assertEquals(List.of("Lilly's", "Brophy Bros"), names("tacos", 0, 2));
+    assertEquals(List.of("Super Cucas"), names("tacos", 2, 2));
+  }
+
+  @Test
+  void test_index_follows_updates_and_deletes() {
+    Restaurant freebirds = restaurantRepository.findAllByName("Freebirds").iterator().next();
+    freebirds.setDescription("Burritos and nachos");
+    restaurantRepository.save(freebirds);
+    restaurantRepository.delete(restaurantRepository.findAllByName("Lilly's").iterator().next());
+
+    assertEquals(List.of("Freebirds"), names("nachos", 0, 10));
+    assertEquals(List.of("Brophy Bros", "Super Cucas"), names("tacos", 0, 10));
+  }
+}
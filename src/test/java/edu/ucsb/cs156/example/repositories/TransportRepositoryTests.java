@@ -0,0 +1,186 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.config.TransportCostInitializer;
+import edu.ucsb.cs156.example.config.TransportModeInitializer;
+import edu.ucsb.cs156.example.entities.Transport;
+import edu.ucsb.cs156.example.entities.TransportMode;
+import edu.ucsb.cs156.example.services.TransportModeService;
+
+@DataJpaTest
+class TransportRepositoryTests {
+
+  @Autowired
+  TransportRepository transportRepository;
+
+  @Autowired
+  TransportModeRepository transportModeRepository;
+
+  @Autowired
+  TestEntityManager entityManager;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  private List<Transport> saved;
+
+  private static Transport transport(String name, String cost) {
+    return Transport.builder().name(name).mode("bus").cost(cost).build();
+  }
+
+  private static List<String> names(List<Transport> transports) {
+    return transports.stream().map(Transport::getName).collect(Collectors.toList());
+  }
+
+  @BeforeEach
+  void saveTransports() {
+    saved = List.of(
+        transport("taxi", "$25.00"),
+        transport("bike", "Free"),
+        transport("bus", "$1.75"),
+        transport("shuttle", "ask the driver"),
+        transport("scooter", "$1.75 + $0.39/min"));
+    transportRepository.saveAll(saved);
+  }
+
+  @Test
+  void test_cost_is_parsed_into_cents_on_save() {
+    assertEquals(2500L, saved.get(0).getCostCents());
+    assertEquals(0L, saved.get(1).getCostCents());
+    assertEquals(175L, saved.get(2).getCostCents());
+    assertNull(saved.get(3).getCostCents());
+
+    Transport bus = saved.get(2);
+    bus.setCost("$2");
+    transportRepository.save(bus);
+    entityManager.flush();
+    assertEquals(200L, bus.getCostCents());
+  }
+
+  @Test
+  void test_cost_parsing_rules() {
+    assertEquals(120000L, Transport.costCents("1,200"));
+    assertEquals(300L, Transport.costCents("$3-5 per ride"));
+    assertEquals(101L, Transport.costCents("1.005"));
+    assertNull(Transport.costCents(null));
+    assertNull(Transport.costCents("$" + "9".repeat(30)));
+    assertEquals(499L, Transport.toCents(new BigDecimal("4.99")));
+  }
+
+  @Test
+  void test_initializer_fills_in_cents_for_rows_saved_without_them() {
+    entityManager.flush();
+    String insert = "INSERT INTO transport (id, name, cost) VALUES (?, ?, ?)";
+    jdbcTemplate.update(insert, 90001L, "ferry", "$12.50");
+    jdbcTemplate.update(insert, 90002L, "walk", "free");
+    jdbcTemplate.update(insert, 90003L, "hitchhike", "ask around");
+
+    new TransportCostInitializer(entityManagerFactory, jdbcTemplate).backfillCostCents();
+    entityManager.clear();
+
+    assertEquals(1250L, transportRepository.findById(90001L).get().getCostCents());
+    assertEquals(0L, transportRepository.findById(90002L).get().getCostCents());
+    assertNull(transportRepository.findById(90003L).get().getCostCents());
+    List<Transport> cheap = transportRepository.findByCostCentsLessThanEqualAndIdGreaterThanOrderByIdAsc(
+        1500L, 90000L, PageRequest.of(0, 10));
+    assertEquals(List.of("ferry", "walk"), names(cheap));
+  }
+
+  @Test
+  void test_cheapest_first_pages_skip_transports_without_an_amount() {
+    List<Transport> first = transportRepository.findByCostCentsLessThanEqualOrderByCostCentsAscIdAsc(
+        Long.MAX_VALUE, PageRequest.of(0, 2));
+    assertEquals(List.of("bike", "bus"), names(first));
+
+    Transport last = first.get(1);
+    List<Transport> next = transportRepository.findByCostAfter(
+        Long.MAX_VALUE, last.getCostCents(), last.getId(), PageRequest.of(0, 10));
+    assertEquals(List.of("scooter", "taxi"), names(next));
+  }
+
+  @Test
+  void test_max_cost_filters_in_id_order() {
+    List<Transport> cheap = transportRepository.findByCostCentsLessThanEqualAndIdGreaterThanOrderByIdAsc(
+        500L, 0L, PageRequest.of(0, 10));
+    assertEquals(List.of("bike", "bus", "scooter"), names(cheap));
+  }
+
+  @Test
+  void test_mode_is_stored_by_id_and_decoded_on_load() {
+    TransportMode tram = transportModeRepository.save(TransportMode.builder().name("tram").build());
+    Transport cableCar = Transport.builder().name("cable car").mode("tram").modeRef(tram).cost("$8").build();
+    Transport streetcar = Transport.builder().name("streetcar").mode("tram").modeRef(tram).cost("$2").build();
+    transportRepository.saveAll(List.of(cableCar, streetcar));
+    entityManager.flush();
+    entityManager.clear();
+
+    List<Transport> trams = transportRepository.findByModeRefAndIdGreaterThanOrderByIdAsc(
+        tram, 0L, PageRequest.of(0, 10));
+
+    assertEquals(List.of("cable car", "streetcar"), names(trams));
+    assertEquals("tram", trams.get(0).getMode());
+    assertEquals(trams.get(0).getMode(), trams.get(1).getMode());
+  }
+
+  @Test
+  void test_a_mode_inserted_behind_the_dictionary_is_reused() {
+    TransportModeService transportModes = new TransportModeService(transportModeRepository);
+    transportModes.reload();
+    TransportMode monorail = transportModeRepository.save(TransportMode.builder().name("monorail").build());
+    entityManager.flush();
+
+    assertEquals(monorail.getId(), transportModes.encode("monorail").getId());
+    assertEquals(1, jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM transport_modes WHERE name = 'monorail'", Integer.class));
+  }
+
+  // The initializer adds to the dictionary in its own transaction, which the
+  // mode_id foreign key has to see, so this test commits and cleans up.
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void test_rows_from_before_mode_id_keep_their_mode_and_get_a_mode_ref_at_startup() {
+    try {
+      String insert = "INSERT INTO transport (id, name, mode, cost) VALUES (?, ?, ?, ?)";
+      jdbcTemplate.update(insert, 90011L, "water taxi", "ferry", "$6");
+      jdbcTemplate.update(insert, 90012L, "car ferry", "ferry", "$20");
+
+      Transport before = transportRepository.findById(90011L).get();
+      assertEquals("ferry", before.getMode());
+      assertNull(before.getModeRef());
+
+      TransportModeService transportModes = new TransportModeService(transportModeRepository);
+      transportModes.reload();
+      new TransportModeInitializer(jdbcTemplate, transportModes).backfillModeIds();
+
+      TransportMode ferry = transportModeRepository.findByName("ferry").get();
+      List<Transport> ferries = transportRepository.findByModeRefAndIdGreaterThanOrderByIdAsc(
+          ferry, 0L, PageRequest.of(0, 10));
+      assertEquals(List.of("water taxi", "car ferry"), names(ferries));
+      assertEquals("ferry", ferries.get(0).getMode());
+    } finally {
+      jdbcTemplate.update("DELETE FROM transport");
+      jdbcTemplate.update("DELETE FROM transport_modes");
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import edu.ucsb.cs156.example.config.TreeCategoryInitializer;
+import edu.ucsb.cs156.example.entities.Tree;
+import edu.ucsb.cs156.example.entities.TreeCategory;
+import edu.ucsb.cs156.example.errors.CategoryHierarchyException;
+import edu.ucsb.cs156.example.models.TreeCategoryFacet;
+import edu.ucsb.cs156.example.services.TreeFacetService;
+
+@DataJpaTest
+class TreeCategoryRepositoryTests {
+
+  @Autowired
+  TreeCategoryRepository treeCategoryRepository;
+
+  @Autowired
+  TreeRepository treeRepository;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  TestEntityManager entityManager;
+
+  private TreeCategory conifer;
+  private TreeCategory pine;
+  private TreeCategory spruce;
+  private TreeCategory broadleaf;
+
+  private static Tree tree(String name, String category) {
+    return Tree.builder().name(name).category(category).build();
+  }
+
+  private List<String> treesUnder(TreeCategory category) {
+    return treeRepository.findInCategorySubtree(category.getId(), 0L, PageRequest.of(0, 100)).stream()
+        .map(Tree::getName)
+        .collect(Collectors.toList());
+  }
+
+  private List<TreeCategoryFacet> facets() {
+    TreeFacetService treeFacets = new TreeFacetService(treeRepository);
+    treeFacets.reconcile();
+    return treeFacets.getCategoryFacets(treeCategoryRepository.findAll());
+  }
+
+  private Map<String, Long> counts() {
+    return facets().stream()
+        .collect(Collectors.toMap(TreeCategoryFacet::getName, TreeCategoryFacet::getCount));
+  }
+
+  @BeforeEach
+  void saveHierarchy() {
+    conifer = treeCategoryRepository.addCategory("Conifer", null);
+    pine = treeCategoryRepository.addCategory("Pine", conifer.getId());
+    spruce = treeCategoryRepository.addCategory("Spruce", conifer.getId());
+    broadleaf = treeCategoryRepository.addCategory("Broadleaf", null);
+    treeRepository.saveAll(List.of(
+        tree("Torrey pine", "Pine"),
+        tree("Monterey pine", "Pine"),
+        tree("Blue spruce", "Spruce"),
+        tree("Coast live oak", "Broadleaf"),
+        tree("Unsorted", "Conifer")));
+  }
+
+  @Test
+  void test_subtree_query_includes_every_category_below() {
+    assertEquals(List.of("Torrey pine", "Monterey pine", "Blue spruce", "Unsorted"), treesUnder(conifer));
+    assertEquals(List.of("Torrey pine", "Monterey pine"), treesUnder(pine));
+    assertEquals(List.of("Coast live oak"), treesUnder(broadleaf));
+  }
+
+  @Test
+  void test_facets_count_each_subtree() {
+    assertEquals(Map.of("Conifer", 4L, "Pine", 2L, "Spruce", 1L, "Broadleaf", 1L), counts());
+    assertEquals(List.of("Broadleaf", "Conifer", "Pine", "Spruce"),
+        facets().stream().map(TreeCategoryFacet::getName).collect(Collectors.toList()));
+  }
+
+  @Test
+  void test_moving_a_category_moves_its_subtree() {
+    TreeCategory whitePine = treeCategoryRepository.addCategory("White pine", pine.getId());
+    treeRepository.save(tree("Sugar pine", "White pine"));
+
+    treeCategoryRepository.moveCategory(pine.getId(), broadleaf.getId());
+
+    assertEquals(List.of("Blue spruce", "Unsorted"), treesUnder(conifer));
+    assertEquals(List.of("Torrey pine", "Monterey pine", "Coast live oak", "Sugar pine"), treesUnder(broadleaf));
+    assertEquals(Map.of("Conifer", 2L, "Pine", 3L, "White pine", 1L, "Spruce", 1L, "Broadleaf", 4L), counts());
+
+    treeCategoryRepository.moveCategory(pine.getId(), null);
+
+    assertEquals(List.of("Coast live oak"), treesUnder(broadleaf));
+    assertEquals(List.of("Torrey pine", "Monterey pine", "Sugar pine"), treesUnder(pine));
+    assertEquals(pine.getId(), treeCategoryRepository.findById(whitePine.getId()).get().getParentId());
+  }
+
+  @Test
+  void test_a_category_cannot_move_below_itself() {
+    TreeCategory whitePine = treeCategoryRepository.addCategory("White pine", pine.getId());
+
+    assertThrows(CategoryHierarchyException.class,
+        () -> treeCategoryRepository.moveCategory(conifer.getId(), whitePine.getId()));
+    assertThrows(CategoryHierarchyException.class,
+        () -> treeCategoryRepository.moveCategory(pine.getId(), pine.getId()));
+  }
+
+  @Test
+  void test_category_names_are_unique() {
+    CategoryHierarchyException e = assertThrows(CategoryHierarchyException.class,
+        () -> treeCategoryRepository.addCategory("Pine", broadleaf.getId()));
+
+    assertEquals("TreeCategory named Pine already exists", e.getMessage());
+    assertEquals(Map.of("Conifer", 4L, "Pine", 2L, "Spruce", 1L, "Broadleaf", 1L), counts());
+  }
+
+  @Test
+  void test_only_leaf_categories_can_be_removed() {
+    assertThrows(CategoryHierarchyException.class, () -> treeCategoryRepository.removeCategory(conifer.getId()));
+
+    treeCategoryRepository.removeCategory(spruce.getId());
+
+    assertEquals(List.of("Torrey pine", "Monterey pine", "Unsorted"), treesUnder(conifer));
+    assertEquals(Map.of("Conifer", 3L, "Pine", 2L, "Broadleaf", 1L), counts());
+  }
+
+  @Test
+  void test_initializer_adds_category_strings_without_a_node_at_the_top_level() {
+    treeRepository.saveAll(List.of(tree("Jacaranda", "Flowering"), tree("Queen palm", "Palm")));
+    entityManager.flush();
+
+    new TreeCategoryInitializer(jdbcTemplate, treeCategoryRepository).importCategories();
+
+    TreeCategory palm = treeCategoryRepository.findByName("Palm").get();
+    assertNull(palm.getParentId());
+    assertEquals(List.of("Queen palm"), treesUnder(palm));
+    assertEquals(Map.of("Conifer", 4L, "Pine", 2L, "Spruce", 1L, "Broadleaf", 1L, "Flowering", 1L, "Palm", 1L),
+        counts());
+    assertEquals(6, treeCategoryRepository.count());
+  }
+}
@@ -0,0 +1,136 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.StreamSupport;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+
+import edu.ucsb.cs156.example.config.UCSBDateIndexInitializer;
+import edu.ucsb.cs156.example.entities.ArchivedUCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+
+@DataJpaTest
+class UCSBDateRepositoryTests {
+
+  @Autowired
+  UCSBDateRepository ucsbDateRepository;
+
+  @Autowired
+  ArchivedUCSBDateRepository archivedUCSBDateRepository;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  private UCSBDate date(String quarter, String name, String localDateTime) {
+    return UCSBDate.builder()
+        .quarterYYYYQ(quarter)
+        .name(name)
+        .localDateTime(LocalDateTime.parse(localDateTime))
+        .build();
+  }
+
+  private static List<String> names(List<UCSBDate> dates) {
+    return dates.stream().map(UCSBDate::getName).collect(Collectors.toList());
+  }
+
+  @BeforeEach
+  void saveDates() {
+    ucsbDateRepository.saveAll(List.of(
+        date("20221", "lastDayOfWinter", "2022-03-11T00:00:00"),
+        date("20222", "lastDayOfSpring", "2022-06-10T00:00:00"),
+        date("20222", "firstDayOfSpring", "2022-03-28T00:00:00"),
+        date("20223", "firstDayOfSummer", "2022-06-21T00:00:00")));
+  }
+
+  @Test
+  void test_quarter_lookup_returns_only_that_quarter_in_date_order() {
+    assertEquals(List.of("firstDayOfSpring", "lastDayOfSpring"),
+        names(ucsbDateRepository.findInQuarter("20222", PageRequest.of(0, 10))));
+    assertEquals(List.of(), ucsbDateRepository.findInQuarter("20224", PageRequest.of(0, 10)));
+  }
+
+  @Test
+  void test_quarter_pages_continue_after_the_cursor_and_end_with_untimed_dates() {
+    ucsbDateRepository.save(UCSBDate.builder().quarterYYYYQ("20222").name("sometimeInSpring").build());
+
+    List<UCSBDate> first = ucsbDateRepository.findInQuarter("20222", PageRequest.of(0, 1));
+    assertEquals(List.of("firstDayOfSpring"), names(first));
+
+    UCSBDate last = first.get(0);
+    List<UCSBDate> next = ucsbDateRepository.findInQuarterAfter(
+        "20222", last.getLocalDateTime(), last.getId(), PageRequest.of(0, 10));
+    assertEquals(List.of("lastDayOfSpring", "sometimeInSpring"), names(next));
+
+    UCSBDate untimed = next.get(1);
+    assertEquals(List.of(), ucsbDateRepository.findUntimedInQuarterAfter(
+        "20222", untimed.getId(), PageRequest.of(0, 10)));
+  }
+
+  @Test
+  void test_range_includes_the_start_and_excludes_the_end() {
+    List<UCSBDate> dates = ucsbDateRepository
+        .findByLocalDateTimeGreaterThanEqualAndLocalDateTimeLessThanOrderByLocalDateTimeAscIdAsc(
+            LocalDateTime.parse("2022-03-11T00:00:00"), LocalDateTime.parse("2022-06-21T00:00:00"),
+            PageRequest.of(0, 2));
+
+    assertEquals(List.of("lastDayOfWinter", "firstDayOfSpring"), names(dates));
+
+    UCSBDate last = dates.get(1);
+    List<UCSBDate> next = ucsbDateRepository.findInRangeAfter(
+        LocalDateTime.parse("2022-06-21T00:00:00"), last.getLocalDateTime(), last.getId(), PageRequest.of(0, 10));
+    assertEquals(List.of("lastDayOfSpring"), names(next));
+  }
+
+  @Test
+  void test_archive_moves_earlier_quarters_and_keeps_their_ids() {
+    long winterId = ucsbDateRepository.findInQuarter("20221", PageRequest.of(0, 1)).get(0).getId();
+
+    int moved = ucsbDateRepository.archiveQuartersBefore("20222");
+
+    assertEquals(1, moved);
+    assertEquals(3, ucsbDateRepository.count());
+    List<ArchivedUCSBDate> archived = StreamSupport
+        .stream(archivedUCSBDateRepository.findAll().spliterator(), false)
+        .collect(Collectors.toList());
+    assertEquals(1, archived.size());
+    assertEquals(winterId, archived.get(0).getId());
+    assertEquals("lastDayOfWinter", archived.get(0).getName());
+    assertEquals(0, ucsbDateRepository.archiveQuartersBefore("20222"));
+  }
+
+  // Dropping and creating an index commits in H2, so this test runs outside
+  // the usual rolled-back test transaction and removes the rows it saved.
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void test_initializer_creates_the_date_indexes_on_an_existing_table() {
+    String count = "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'UCSBDATES_LOCAL_DATE_TIME_IDX'";
+    try {
+      jdbcTemplate.execute("DROP INDEX IF EXISTS ucsbdates_local_date_time_idx");
+      assertEquals(0L, jdbcTemplate.queryForObject(count, Long.class));
+
+      new UCSBDateIndexInitializer(entityManagerFactory, jdbcTemplate).createIndexes();
+      new UCSBDateIndexInitializer(entityManagerFactory, jdbcTemplate).createIndexes();
+
+      assertEquals(1L, jdbcTemplate.queryForObject(count, Long.class));
+    } finally {
+      jdbcTemplate.execute(UCSBDateIndexInitializer.LOCAL_DATE_TIME_INDEX);
+      jdbcTemplate.update("DELETE FROM ucsbdates");
+    }
+  }
+}
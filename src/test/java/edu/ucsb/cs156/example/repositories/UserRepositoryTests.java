@@ -0,0 +1,112 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+
+import edu.ucsb.cs156.example.config.UserEmailIndexInitializer;
+import edu.ucsb.cs156.example.entities.User;
+
+@DataJpaTest
+class UserRepositoryTests {
+
+  @Autowired
+  UserRepository userRepository;
+
+  @Autowired
+  TestEntityManager testEntityManager;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  private User user(String email, boolean admin) {
+    return User.builder()
+        .email(email)
+        .googleSub("sub-" + email)
+        .fullName("Some One")
+        .emailVerified(true)
+        .admin(admin)
+        .build();
+  }
+
+  @Test
+  void test_upsert_inserts_once_per_email() {
+    User first = userRepository.upsertByEmail(user("a@ucsb.edu", false));
+    User second = userRepository.upsertByEmail(user("a@ucsb.edu", false));
+
+    assertEquals(first.getId(), second.getId());
+    assertEquals("Some One", second.getFullName());
+    assertEquals(1, userRepository.count());
+  }
+
+  @Test
+  void test_upsert_promotes_but_never_demotes() {
+    userRepository.upsertByEmail(user("b@ucsb.edu", false));
+
+    User promoted = userRepository.upsertByEmail(user("b@ucsb.edu", true));
+    assertTrue(promoted.getAdmin());
+
+    User stillAdmin = userRepository.upsertByEmail(user("b@ucsb.edu", false));
+    assertTrue(stillAdmin.getAdmin());
+  }
+
+  @Test
+  void test_upsert_of_non_admin_stays_non_admin() {
+    User u = userRepository.upsertByEmail(user("c@ucsb.edu", false));
+    assertFalse(u.getAdmin());
+  }
+
+  @Test
+  void test_email_is_unique() {
+    testEntityManager.persistAndFlush(user("d@ucsb.edu", false));
+    assertThrows(PersistenceException.class,
+        () -> testEntityManager.persistAndFlush(user("d@ucsb.edu", false)));
+  }
+
+  // Dropping and creating the index commits in H2, so this test runs outside
+  // the usual rolled-back test transaction and puts the constraint back.
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void test_initializer_folds_duplicate_emails_and_creates_the_unique_index() {
+    jdbcTemplate.execute("ALTER TABLE users DROP CONSTRAINT IF EXISTS users_email_unique_idx");
+    jdbcTemplate.execute("DROP INDEX IF EXISTS users_email_unique_idx");
+    try {
+      String insert = "INSERT INTO users (id, email, email_verified, admin, full_name) VALUES (?, ?, TRUE, ?, ?)";
+      jdbcTemplate.update(insert, 901L, "e@ucsb.edu", false, null);
+      jdbcTemplate.update(insert, 902L, "e@ucsb.edu", true, "Old Name");
+      jdbcTemplate.update(insert, 903L, "e@ucsb.edu", false, "New Name");
+      jdbcTemplate.update(insert, 904L, null, false, null);
+      jdbcTemplate.update(insert, 905L, null, false, null);
+
+      new UserEmailIndexInitializer(entityManagerFactory, jdbcTemplate).createUniqueEmailIndex();
+
+      assertEquals(3, userRepository.count());
+      User kept = userRepository.findByEmail("e@ucsb.edu").get();
+      assertEquals(901L, kept.getId());
+      assertTrue(kept.getAdmin());
+      assertEquals("New Name", kept.getFullName());
+      assertThrows(DataIntegrityViolationException.class,
+          () -> jdbcTemplate.update(insert, 906L, "e@ucsb.edu", false, null));
+    } finally {
+      jdbcTemplate.update("DELETE FROM users");
+      jdbcTemplate.execute("DROP INDEX IF EXISTS users_email_unique_idx");
+      jdbcTemplate.execute("ALTER TABLE users ADD CONSTRAINT users_email_unique_idx UNIQUE (email)");
+    }
+  }
+}
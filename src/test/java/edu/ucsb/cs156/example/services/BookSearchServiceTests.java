@@ -0,0 +1,173 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.repositories.BookRepository;
+
+class BookSearchServiceTests {
+
+  @TempDir
+  Path dir;
+
+  private BookRepository bookRepository;
+
+  // the rows the mocked repository serves, by id
+  private final Map<Long, Book> table = new TreeMap<>();
+
+  private static Book book(long id, String name, String author, String genre) {
+    return Book.builder().id(id).name(name).author(author).genre(genre).wordcount(1000 * id).build();
+  }
+
+  private static List<Long> ids(List<Book> books) {
+    return books.stream().map(Book::getId).collect(Collectors.toList());
+  }
+
+  private void insert(Book book) {
+    table.put(book.getId(), book);
+  }
+
+  private BookSearchService loadedIndex() {
+    BookSearchService index = new BookSearchService(bookRepository, dir.resolve("book-search.idx"));
+    index.load();
+    return index;
+  }
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUpRepository() {
+    insert(book(1, "Parameterized Algorithms", "Daniel Lokshtanov", "Textbook"));
+    insert(book(2, "The Lightning Thief", "Rick Riordan", "Fantasy"));
+    insert(book(3, "The Sea of Monsters", "Rick Riordan", "Fantasy"));
+    insert(book(4, "Exact Exponential Algorithms", "Fedor V. Fomin", "Textbook"));
+
+    bookRepository = mock(BookRepository.class);
+    when(bookRepository.changeMarker()).thenReturn("4:4:a");
+    when(bookRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(table.values()));
+    when(bookRepository.findAllById(any())).thenAnswer(invocation -> {
+      List<Book> rows = new ArrayList<>();
+      for (Long id : (Iterable<Long>) invocation.getArgument(0)) {
+        if (table.containsKey(id)) {
+          rows.add(table.get(id));
+        }
+      }
+      return rows;
+    });
+  }
+
+  @Test
+  void test_tokenize_splits_on_punctuation_and_case_folds() {
+    assertEquals(List.of("fedor", "v", "fomin"), BookSearchService.tokenize("Fedor V. Fomin"));
+    assertEquals(List.of(), BookSearchService.tokenize(null));
+  }
+
+  @Test
+  void test_every_word_must_prefix_match_one_of_the_fields() {
+    BookSearchService index = loadedIndex();
+
+    assertEquals(List.of(2L, 3L), ids(index.search("riordan", 10)));
+    assertEquals(List.of(1L, 4L), ids(index.search("ALGO", 10)));
+    assertEquals(List.of(4L), ids(index.search("algorithms textbook fom", 10)));
+    assertEquals(List.of(), ids(index.search("algorithms fantasy", 10)));
+    assertEquals(List.of(), ids(index.search(" -- ", 10)));
+    assertEquals(List.of(2L), ids(index.search("rick", 1)));
+  }
+
+  @Test
+  void test_put_and_remove_update_the_postings() {
+    BookSearchService index = loadedIndex();
+
+    index.put(book(2, "The Lightning Thief", "Rick Riordan", "Mythology"));
+    assertEquals(List.of(3L), ids(index.search("fantasy", 10)));
+    assertEquals(List.of(2L), ids(index.search("myth", 10)));
+
+    index.remove(3);
+    assertEquals(List.of(), ids(index.search("monsters", 10)));
+    assertEquals(List.of(2L), ids(index.search("riordan", 10)));
+
+    insert(book(5, "Titan's Curse", "Rick Riordan", "Fantasy"));
+    index.putAll(List.of(table.get(5L)));
+    assertEquals(List.of(2L, 5L), ids(index.search("riordan", 10)));
+  }
+
+  @Test
+  void test_results_are_read_from_the_table_and_deleted_rows_are_skipped() {
+    BookSearchService index = loadedIndex();
+    Book renamed = book(3, "The Sea of Monsters (2nd ed.)", "Rick Riordan", "Fantasy");
+    insert(renamed);
+    table.remove(2L);
+    insert(book(5, "Titan's Curse", "Rick Riordan", "Fantasy"));
+    index.put(table.get(5L));
+
+    List<Book> found = index.search("riordan", 2);
+
+    assertEquals(List.of(renamed, table.get(5L)), found);
+  }
+
+  @Test
+  void test_a_saved_index_is_loaded_without_reading_the_table() throws Exception {
+    BookSearchService first = loadedIndex();
+    first.remove(4);
+    table.remove(4L);
+    when(bookRepository.changeMarker()).thenReturn("3:3:b");
+    first.save();
+    assertTrue(Files.exists(dir.resolve("book-search.idx")));
+
+    BookSearchService second = loadedIndex();
+
+    verify(bookRepository, times(1)).findAll();
+    assertEquals(List.of(1L), ids(second.search("algorithms", 10)));
+    assertEquals(List.of(2L, 3L), ids(second.search("rick riordan", 10)));
+  }
+
+  @Test
+  void test_a_saved_index_is_rebuilt_when_a_row_was_saved_since() {
+    loadedIndex().save();
+    when(bookRepository.changeMarker()).thenReturn("4:4:c");
+
+    loadedIndex();
+
+    verify(bookRepository, times(2)).findAll();
+  }
+
+  @Test
+  void test_save_is_skipped_when_nothing_changed() throws Exception {
+    BookSearchService index = loadedIndex();
+    index.save();
+    Files.delete(dir.resolve("book-search.idx"));
+
+    index.saveIfChanged();
+
+    assertTrue(Files.notExists(dir.resolve("book-search.idx")));
+  }
+
+  @Test
+  void test_save_is_retried_when_the_table_changes_during_the_snapshot() {
+    BookSearchService index = loadedIndex();
+    when(bookRepository.changeMarker()).thenReturn("4:4:a", "5:5:d");
+
+    index.saveIfChanged();
+    assertTrue(Files.notExists(dir.resolve("book-search.idx")));
+
+    index.saveIfChanged();
+    assertTrue(Files.exists(dir.resolve("book-search.idx")));
+  }
+}
@@ -0,0 +1,159 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.models.WordcountStatistics;
+import edu.ucsb.cs156.example.repositories.BookRepository;
+
+class BookStatisticsServiceTests {
+
+  private BookRepository bookRepository;
+  private BookStatisticsService statistics;
+
+  private static Book book(String genre, long wordcount) {
+    return Book.builder().name("b").author("a").genre(genre).wordcount(wordcount).build();
+  }
+
+  @BeforeEach
+  void loadStatistics() {
+    bookRepository = mock(BookRepository.class);
+    List<Long> fantasy = new ArrayList<>();
+    for (long i = 1; i <= 100; i++) {
+      fantasy.add(i * 1000);
+    }
+    when(bookRepository.findDistinctGenres()).thenReturn(List.of("Fantasy", ""));
+    when(bookRepository.findWordcountsByGenre("Fantasy")).thenReturn(fantasy);
+    when(bookRepository.findWordcountsByGenre("")).thenReturn(List.of(500L));
+    statistics = new BookStatisticsService(bookRepository);
+    statistics.load();
+  }
+
+  private static void assertWithinPrecision(long expected, long actual) {
+    assertTrue(Math.abs(expected - actual) <= expected / 1000, "expected ~" + expected + " but was " + actual);
+  }
+
+  @Test
+  void test_statistics_are_loaded_per_genre() {
+    WordcountStatistics fantasy = statistics.getStatistics("Fantasy");
+
+    assertEquals(100, fantasy.getCount());
+    assertWithinPrecision(1000, fantasy.getMin());
+    assertWithinPrecision(100000, fantasy.getMax());
+    assertEquals(50500.0, fantasy.getMean(), 50.5);
+    assertWithinPrecision(50000, fantasy.getP50());
+    assertWithinPrecision(90000, fantasy.getP90());
+    assertWithinPrecision(99000, fantasy.getP99());
+
+    assertEquals(List.of("", "Fantasy"), statistics.getStatistics().stream()
+        .map(WordcountStatistics::getGenre).collect(Collectors.toList()));
+    assertEquals(1, statistics.getStatistics(null).getCount());
+  }
+
+  @Test
+  void test_an_unknown_genre_has_empty_statistics() {
+    WordcountStatistics none = statistics.getStatistics("Poetry");
+
+    assertEquals("Poetry", none.getGenre());
+    assertEquals(0, none.getCount());
+    assertEquals(0, none.getMin());
+    assertEquals(0, none.getMax());
+  }
+
+  @Test
+  void test_added_books_are_recorded_immediately() {
+    statistics.added(book("Textbook", 123456));
+    statistics.addedAll(List.of(book("Textbook", 654321), book("Fantasy", 1)));
+
+    assertEquals(2, statistics.getStatistics("Textbook").getCount());
+    assertWithinPrecision(654321, statistics.getStatistics("Textbook").getMax());
+    assertEquals(101, statistics.getStatistics("Fantasy").getCount());
+  }
+
+  @Test
+  void test_changes_rebuild_only_the_stale_genres_in_the_background() {
+    statistics.changed("Fantasy", null);
+    when(bookRepository.findWordcountsByGenre("Fantasy")).thenReturn(List.of(7000L, 8000L));
+    assertEquals(100, statistics.getStatistics("Fantasy").getCount());
+
+    statistics.rebuildStale();
+
+    assertEquals(2, statistics.getStatistics("Fantasy").getCount());
+    verify(bookRepository, times(2)).findWordcountsByGenre("Fantasy");
+    verify(bookRepository, times(2)).findWordcountsByGenre("");
+
+    statistics.rebuildStale();
+    verify(bookRepository, times(2)).findWordcountsByGenre("Fantasy");
+    verify(bookRepository, never()).findAll();
+  }
+
+  @Test
+  void test_a_genre_with_no_books_left_is_dropped() {
+    when(bookRepository.findWordcountsByGenre("")).thenReturn(List.of());
+    statistics.changed("", "Fantasy");
+
+    statistics.rebuildStale();
+
+    assertEquals(List.of("Fantasy"), statistics.getStatistics().stream()
+        .map(WordcountStatistics::getGenre).collect(Collectors.toList()));
+  }
+
+  @Test
+  void test_negative_wordcounts_are_rejected_and_left_out_of_rebuilds() {
+    assertThrows(IllegalArgumentException.class, () -> statistics.added(book("Fantasy", -1)));
+    assertEquals(100, statistics.getStatistics("Fantasy").getCount());
+
+    when(bookRepository.findWordcountsByGenre("Fantasy")).thenReturn(List.of(-5L, 7000L));
+    statistics.changed("Fantasy", "Fantasy");
+    statistics.rebuildStale();
+
+    assertEquals(1, statistics.getStatistics("Fantasy").getCount());
+    assertWithinPrecision(7000, statistics.getStatistics("Fantasy").getMin());
+  }
+
+  @Test
+  void test_a_book_added_during_a_rebuild_gets_its_genre_rebuilt_again() {
+    // the add lands while the rebuild is reading the table, after the row
+    // was read; the rebuilt histogram misses it until the next run
+    when(bookRepository.findWordcountsByGenre("Fantasy")).thenAnswer(invocation -> {
+      statistics.added(book("Fantasy", 9000));
+      return List.of(7000L);
+    }).thenReturn(List.of(7000L, 9000L));
+    statistics.changed("Fantasy", "Fantasy");
+
+    statistics.rebuildStale();
+    assertEquals(1, statistics.getStatistics("Fantasy").getCount());
+
+    statistics.rebuildStale();
+    assertEquals(2, statistics.getStatistics("Fantasy").getCount());
+  }
+
+  @Test
+  void test_rebuildAll_rebuilds_every_genre_and_drops_empty_ones() {
+    statistics.added(book("Textbook", 123456));
+    when(bookRepository.findDistinctGenres()).thenReturn(List.of("Fantasy"));
+    when(bookRepository.findWordcountsByGenre("Fantasy")).thenReturn(List.of(7000L, 8000L, 9000L));
+    when(bookRepository.findWordcountsByGenre("")).thenReturn(List.of());
+    when(bookRepository.findWordcountsByGenre("Textbook")).thenReturn(List.of());
+
+    statistics.rebuildAll();
+
+    assertEquals(List.of("Fantasy"), statistics.getStatistics().stream()
+        .map(WordcountStatistics::getGenre).collect(Collectors.toList()));
+    assertEquals(3, statistics.getStatistics("Fantasy").getCount());
+  }
+}
@@ -0,0 +1,75 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+
+class DiningCommonsAmenityIndexServiceTests {
+
+  private DiningCommonsAmenityIndexService index;
+
+  private static UCSBDiningCommons commons(String code, boolean sackMeal, boolean takeOutMeal, boolean diningCam) {
+    return UCSBDiningCommons.builder()
+        .code(code)
+        .name(code)
+        .hasSackMeal(sackMeal)
+        .hasTakeOutMeal(takeOutMeal)
+        .hasDiningCam(diningCam)
+        .build();
+  }
+
+  private List<String> codes(Boolean sackMeal, Boolean takeOutMeal, Boolean diningCam) {
+    return index.filter(sackMeal, takeOutMeal, diningCam).stream()
+        .map(UCSBDiningCommons::getCode)
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  @BeforeEach
+  void loadIndex() {
+    UCSBDiningCommonsRepository repository = mock(UCSBDiningCommonsRepository.class);
+    when(repository.findAll()).thenReturn(List.of(
+        commons("carrillo", false, false, true),
+        commons("de-la-guerra", false, true, true),
+        commons("ortega", true, true, true),
+        commons("portola", true, false, false)));
+    index = new DiningCommonsAmenityIndexService(repository);
+    index.reload();
+  }
+
+  @Test
+  void test_filter_ands_the_requested_flags() {
+    assertEquals(List.of("de-la-guerra", "ortega"), codes(null, true, true));
+    assertEquals(List.of("ortega", "portola"), codes(true, null, null));
+    assertEquals(List.of("carrillo"), codes(false, false, true));
+    assertEquals(List.of(), codes(false, true, false));
+  }
+
+  @Test
+  void test_filter_with_no_flags_returns_every_commons() {
+    assertEquals(List.of("carrillo", "de-la-guerra", "ortega", "portola"), codes(null, null, null));
+  }
+
+  @Test
+  void test_put_and_remove_update_the_index_and_reuse_slots() {
+    index.put(commons("carrillo", true, true, true));
+    assertEquals(List.of("carrillo", "ortega"), codes(true, true, null));
+
+    index.remove("ortega");
+    index.remove("munger-hall");
+    assertEquals(List.of("carrillo"), codes(true, true, null));
+
+    index.put(commons("munger-hall", true, true, false));
+    assertEquals(List.of("carrillo", "munger-hall"), codes(true, true, null));
+    assertEquals(List.of("carrillo", "de-la-guerra", "munger-hall", "portola"), codes(null, null, null));
+  }
+}
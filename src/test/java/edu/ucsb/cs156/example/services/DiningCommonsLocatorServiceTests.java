@@ -0,0 +1,109 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+
+class DiningCommonsLocatorServiceTests {
+
+  private static UCSBDiningCommons commons(String code, Double latitude, Double longitude) {
+    return UCSBDiningCommons.builder()
+        .code(code)
+        .name(code)
+        .latitude(latitude)
+        .longitude(longitude)
+        .build();
+  }
+
+  private static List<String> codes(List<UCSBDiningCommons> commons) {
+    return commons.stream().map(UCSBDiningCommons::getCode).collect(Collectors.toList());
+  }
+
+  private static DiningCommonsLocatorService locatorFor(List<UCSBDiningCommons> commons) {
+    UCSBDiningCommonsRepository repository = mock(UCSBDiningCommonsRepository.class);
+    when(repository.findAll()).thenReturn(commons);
+    DiningCommonsLocatorService locator = new DiningCommonsLocatorService(repository);
+    locator.reload();
+    return locator;
+  }
+
+  private final List<UCSBDiningCommons> campus = List.of(
+      commons("carrillo", 34.409953, -119.85277),
+      commons("de-la-guerra", 34.409811, -119.845026),
+      commons("ortega", 34.410987, -119.84709),
+      commons("portola", 34.417723, -119.867427));
+
+  @Test
+  void test_nearest_returns_closest_first() {
+    DiningCommonsLocatorService locator = locatorFor(campus);
+
+    // just outside Portola
+    assertEquals(List.of("portola", "carrillo"), codes(locator.nearest(34.4178, -119.8675, 2)));
+    // between Ortega and De La Guerra, a little closer to Ortega
+    assertEquals(List.of("ortega", "de-la-guerra"), codes(locator.nearest(34.4106, -119.8463, 2)));
+  }
+
+  @Test
+  void test_nearest_skips_commons_without_coordinates_and_stops_at_the_index_size() {
+    List<UCSBDiningCommons> withUnknown = new ArrayList<>(campus);
+    withUnknown.add(commons("munger-hall", null, null));
+    DiningCommonsLocatorService locator = locatorFor(withUnknown);
+
+    assertEquals(4, locator.nearest(34.41, -119.85, 10).size());
+    assertEquals(List.of(), locator.nearest(34.41, -119.85, 0));
+  }
+
+  @Test
+  void test_put_and_remove_update_the_index_without_reloading() {
+    DiningCommonsLocatorService locator = locatorFor(campus);
+
+    locator.put(commons("munger-hall", 34.420799, -119.852617));
+    assertEquals(List.of("munger-hall"), codes(locator.nearest(34.4208, -119.8526, 1)));
+
+    // moving an existing commons replaces its old position
+    locator.put(commons("munger-hall", 34.0, -118.0));
+    assertEquals(List.of("munger-hall"), codes(locator.nearest(34.0, -118.0, 1)));
+    assertEquals(List.of("portola"), codes(locator.nearest(34.4208, -119.8600, 1)));
+
+    locator.remove("munger-hall");
+    assertEquals(List.of("de-la-guerra"), codes(locator.nearest(34.0, -118.0, 1)));
+  }
+
+  @Test
+  void test_nearest_matches_a_brute_force_scan() {
+    Random random = new Random(156);
+    List<UCSBDiningCommons> scattered = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      scattered.add(commons("c" + i, random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180));
+    }
+    DiningCommonsLocatorService locator = locatorFor(scattered);
+
+    for (int q = 0; q < 50; q++) {
+      double latitude = random.nextDouble() * 170 - 85;
+      double longitude = random.nextDouble() * 360 - 180;
+      double[] target = DiningCommonsLocatorService.toPoint(latitude, longitude);
+      List<String> expected = scattered.stream()
+          .sorted(Comparator.comparingDouble(c -> {
+            double[] p = DiningCommonsLocatorService.toPoint(c.getLatitude(), c.getLongitude());
+            double dx = p[0] - target[0], dy = p[1] - target[1], dz = p[2] - target[2];
+            return dx * dx + dy * dy + dz * dz;
+          }))
+          .limit(5)
+          .map(UCSBDiningCommons::getCode)
+          .collect(Collectors.toList());
+
+      assertEquals(expected, codes(locator.nearest(latitude, longitude, 5)));
+    }
+  }
+}
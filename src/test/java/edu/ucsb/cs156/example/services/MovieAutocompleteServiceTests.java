@@ -0,0 +1,95 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.Movie;
+import edu.ucsb.cs156.example.repositories.MovieRepository;
+
+class MovieAutocompleteServiceTests {
+
+  private MovieAutocompleteService index;
+
+  private static Movie movie(long id, String name) {
+    return Movie.builder().id(id).name(name).genre("drama").year(2000).build();
+  }
+
+  private List<Long> ids(String prefix, int limit) {
+    return index.complete(prefix, limit).stream().map(Movie::getId).collect(Collectors.toList());
+  }
+
+  @BeforeEach
+  void loadIndex() {
+    MovieRepository movieRepository = mock(MovieRepository.class);
+    when(movieRepository.findAll()).thenReturn(List.of(
+        movie(1, "The Thing"),
+        movie(2, "Thelma & Louise"),
+        movie(3, "The Terminator"),
+        movie(4, "Amélie"),
+        movie(5, "the thing"),
+        movie(6, "Alien")));
+    index = new MovieAutocompleteService(movieRepository);
+    index.reload();
+  }
+
+  @Test
+  void test_normalize_folds_case_accents_and_punctuation() {
+    assertEquals("thelma louise", MovieAutocompleteService.normalize("  Thelma & Louise!"));
+    assertEquals("amelie", MovieAutocompleteService.normalize("Amélie"));
+    assertEquals("", MovieAutocompleteService.normalize(null));
+  }
+
+  @Test
+  void test_complete_returns_matches_in_title_order() {
+    assertEquals(List.of(3L, 1L, 5L, 2L), ids("the", 10));
+    assertEquals(List.of(3L, 1L, 5L), ids("THE ", 10));
+    assertEquals(List.of(1L, 5L), ids("the-thing", 10));
+    assertEquals(List.of(1L, 5L), ids("the th", 10));
+    assertEquals(List.of(4L), ids("ame", 10));
+    assertEquals(List.of(), ids("thex", 10));
+    assertEquals(List.of(), ids("z", 10));
+  }
+
+  @Test
+  void test_complete_respects_the_limit_and_the_top_k_cap() {
+    assertEquals(List.of(3L, 1L), ids("t", 2));
+    assertEquals(List.of(6L, 4L, 3L, 1L, 5L, 2L), ids("", 10));
+
+    List<Movie> many = new ArrayList<>();
+    for (int i = 0; i < MovieAutocompleteService.TOP_K + 5; i++) {
+      many.add(movie(100 + i, String.format("Sequel %02d", i)));
+    }
+    index.putAll(many);
+
+    List<Long> sequels = ids("sequel", 1000);
+    assertEquals(MovieAutocompleteService.TOP_K, sequels.size());
+    assertEquals(100L, sequels.get(0));
+  }
+
+  @Test
+  void test_put_and_remove_keep_the_trie_current() {
+    index.put(movie(1, "Thief"));
+    assertEquals(List.of(1L), ids("thi", 10));
+    assertEquals(List.of(3L, 5L, 2L), ids("the", 10));
+
+    index.remove(3);
+    index.remove(99);
+    assertEquals(List.of(5L, 2L), ids("the", 10));
+
+    index.remove(5);
+    index.remove(2);
+    assertEquals(List.of(), ids("the", 10));
+    assertEquals(List.of(1L), ids("th", 10));
+
+    index.put(movie(7, "The Thing"));
+    assertEquals(List.of(7L), ids("the thing", 10));
+  }
+}
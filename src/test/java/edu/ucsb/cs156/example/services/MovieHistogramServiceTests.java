@@ -0,0 +1,61 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.Movie;
+import edu.ucsb.cs156.example.repositories.MovieRepository;
+
+class MovieHistogramServiceTests {
+
+  private MovieRepository movieRepository;
+  private MovieHistogramService histogram;
+
+  private static Movie movie(String genre, int year) {
+    return Movie.builder().name(genre + " " + year).genre(genre).year(year).build();
+  }
+
+  private static List<Object[]> rows(Object[]... rows) {
+    return new ArrayList<>(List.of(rows));
+  }
+
+  private List<String> cells() {
+    return histogram.getHistogram().stream()
+        .map(c -> c.getGenre() + "/" + c.getYear() + "=" + c.getCount())
+        .collect(Collectors.toList());
+  }
+
+  @BeforeEach
+  void loadHistogram() {
+    movieRepository = mock(MovieRepository.class);
+    when(movieRepository.countByGenreAndYear()).thenReturn(rows(
+        new Object[] { "action", 2026, 2L },
+        new Object[] { "", 1999, 1L },
+        new Object[] { "horror", 2023, 1L }));
+    histogram = new MovieHistogramService(movieRepository);
+    histogram.reconcile();
+  }
+
+  @Test
+  void test_histogram_is_sorted_by_genre_then_year() {
+    assertEquals(List.of("/1999=1", "action/2026=2", "horror/2023=1"), cells());
+  }
+
+  @Test
+  void test_writes_adjust_the_counts() {
+    histogram.added(movie(null, 1999));
+    histogram.addedAll(List.of(movie("action", 2025), movie("action", 2026)));
+    histogram.removed(movie("horror", 2023));
+    histogram.changed("action", 2026, movie("romance", 2024));
+
+    assertEquals(List.of("/1999=2", "action/2025=1", "action/2026=2", "romance/2024=1"), cells());
+  }
+}
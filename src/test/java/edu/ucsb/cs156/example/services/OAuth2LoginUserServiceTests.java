@@ -0,0 +1,106 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+@ExtendWith(SpringExtension.class)
+@Import(TestConfig.class)
+@ContextConfiguration
+@TestPropertySource(properties = "app.admin.emails=boss@ucsb.edu")
+class OAuth2LoginUserServiceTests {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @Autowired
+  OAuth2LoginUserService oauth2LoginUserService;
+
+  private OAuth2User googleUser(String sub, String email) {
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put("sub", sub);
+    attributes.put("email", email);
+    attributes.put("name", "Some One");
+    attributes.put("email_verified", true);
+    return new DefaultOAuth2User(List.of(new OAuth2UserAuthority("ROLE_USER", attributes)), attributes, "sub");
+  }
+
+  private Set<String> roles(OAuth2User user) {
+    return user.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+  }
+
+  @Test
+  void test_new_user_is_created_once_and_attached_to_principal() {
+    when(userRepository.upsertByEmail(any(User.class))).thenAnswer(invocation -> {
+      User u = invocation.getArgument(0);
+      u.setId(42L);
+      return u;
+    });
+
+    OAuth2User principal = oauth2LoginUserService.hydrate(googleUser("sub-new", "new@ucsb.edu"), "sub");
+
+    assertEquals(42L, (Long) principal.getAttribute(OAuth2LoginUserService.USER_ID_ATTRIBUTE));
+    assertEquals(false, principal.getAttribute(OAuth2LoginUserService.ADMIN_ATTRIBUTE));
+    assertEquals("sub-new", principal.getName());
+    assertEquals(Set.of("ROLE_USER", "ROLE_MEMBER"), roles(principal));
+    verify(userRepository, times(1)).upsertByEmail(any(User.class));
+  }
+
+  @Test
+  void test_admin_email_is_promoted_and_gets_admin_role() {
+    User promoted = User.builder().id(7L).email("boss@ucsb.edu").googleSub("sub-boss").admin(true).build();
+    when(userRepository.upsertByEmail(any(User.class))).thenReturn(promoted);
+
+    OAuth2User principal = oauth2LoginUserService.hydrate(googleUser("sub-boss", "boss@ucsb.edu"), "sub");
+
+    ArgumentCaptor<User> upserted = ArgumentCaptor.forClass(User.class);
+    verify(userRepository, times(1)).upsertByEmail(upserted.capture());
+    assertTrue(upserted.getValue().getAdmin());
+    assertEquals(7L, (Long) principal.getAttribute(OAuth2LoginUserService.USER_ID_ATTRIBUTE));
+    assertEquals(true, principal.getAttribute(OAuth2LoginUserService.ADMIN_ATTRIBUTE));
+    assertTrue(roles(principal).contains("ROLE_ADMIN"));
+  }
+
+  @Test
+  void test_repeat_login_sees_changes_made_since_the_last_one() {
+    User existing = User.builder().id(8L).email("someone@gmail.com").googleSub("sub-8").build();
+    User promoted = User.builder().id(8L).email("someone@gmail.com").googleSub("sub-8").admin(true).build();
+    when(userRepository.upsertByEmail(any(User.class))).thenReturn(existing, promoted);
+
+    OAuth2User first = oauth2LoginUserService.hydrate(googleUser("sub-8", "someone@gmail.com"), "sub");
+    OAuth2User second = oauth2LoginUserService.hydrate(googleUser("sub-8", "someone@gmail.com"), "sub");
+
+    verify(userRepository, times(2)).upsertByEmail(any(User.class));
+    assertFalse(roles(first).contains("ROLE_MEMBER"));
+    assertFalse(roles(first).contains("ROLE_ADMIN"));
+    assertTrue(roles(second).contains("ROLE_ADMIN"));
+  }
+}
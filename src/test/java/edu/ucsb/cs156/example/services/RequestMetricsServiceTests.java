@@ -0,0 +1,59 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.models.HandlerLatencyStatistics;
+import edu.ucsb.cs156.example.services.RequestMetricsService.HandlerRecorder;
+
+class RequestMetricsServiceTests {
+
+  @Test
+  void test_recorder_is_created_once_per_handler() {
+    RequestMetricsService service = new RequestMetricsService();
+    assertSame(service.recorderFor("A.a"), service.recorderFor("A.a"));
+  }
+
+  @Test
+  void test_percentiles_errors_and_in_flight() {
+    RequestMetricsService service = new RequestMetricsService();
+    HandlerRecorder recorder = service.recorderFor("BookController.allBooks");
+
+    for (int i = 1; i <= 100; i++) {
+      recorder.start();
+      recorder.stop(i * 1_000_000L, i == 100); // i milliseconds
+    }
+    recorder.start(); // still running
+
+    List<HandlerLatencyStatistics> stats = service.getStatistics();
+    assertEquals(1, stats.size());
+    HandlerLatencyStatistics s = stats.get(0);
+    assertEquals("BookController.allBooks", s.getHandler());
+    assertEquals(100, s.getCount());
+    assertEquals(1, s.getErrorCount());
+    assertEquals(0.01, s.getErrorRate(), 1e-9);
+    assertEquals(1, s.getInFlight());
+    assertTrue(Math.abs(s.getP50Micros() - 50_000) <= 500);
+    assertTrue(Math.abs(s.getP95Micros() - 95_000) <= 1_000);
+    assertTrue(Math.abs(s.getP99Micros() - 99_000) <= 1_000);
+  }
+
+  @Test
+  void test_statistics_accumulate_across_reads_and_are_sorted() {
+    RequestMetricsService service = new RequestMetricsService();
+    service.recorderFor("B.b").stop(1_000, false);
+    service.getStatistics();
+    service.recorderFor("B.b").stop(1_000, false);
+    service.recorderFor("A.a").stop(1_000, false);
+
+    List<HandlerLatencyStatistics> stats = service.getStatistics();
+    assertEquals("A.a", stats.get(0).getHandler());
+    assertEquals("B.b", stats.get(1).getHandler());
+    assertEquals(2, stats.get(1).getCount());
+  }
+}
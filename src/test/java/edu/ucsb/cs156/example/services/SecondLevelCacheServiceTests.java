@@ -0,0 +1,84 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.models.CacheStatistics;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+
+// The READ_WRITE region only takes entries from committed transactions, so
+// these tests run each repository call in its own transaction rather than
+// inside one rolled-back test transaction.
+@DataJpaTest
+@Import(SecondLevelCacheService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheServiceTests {
+
+  @Autowired
+  SecondLevelCacheService secondLevelCacheService;
+
+  @Autowired
+  UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @AfterEach
+  void deleteCommons() {
+    ucsbDiningCommonsRepository.deleteAll();
+  }
+
+  private Map<String, CacheStatistics> statistics() {
+    return secondLevelCacheService.getStatistics().stream()
+        .collect(Collectors.toMap(CacheStatistics::getName, Function.identity()));
+  }
+
+  private UCSBDiningCommons commons(String code) {
+    return UCSBDiningCommons.builder()
+        .code(code)
+        .name(code)
+        .hasSackMeal(false)
+        .hasTakeOutMeal(false)
+        .hasDiningCam(true)
+        .latitude(34.4)
+        .longitude(-119.8)
+        .build();
+  }
+
+  @Test
+  void test_findById_is_served_from_the_entity_region_after_the_first_load() {
+    ucsbDiningCommonsRepository.save(commons("ortega"));
+    long hitsBefore = statistics().get("hibernate:ucsbdiningcommons").getHitCount();
+
+    ucsbDiningCommonsRepository.findById("ortega");
+    ucsbDiningCommonsRepository.findById("ortega");
+
+    CacheStatistics region = statistics().get("hibernate:ucsbdiningcommons");
+    assertEquals(hitsBefore + 2, region.getHitCount());
+  }
+
+  @Test
+  void test_findAll_is_served_from_the_query_cache_until_the_table_changes() {
+    ucsbDiningCommonsRepository.save(commons("carrillo"));
+    ucsbDiningCommonsRepository.findAll();
+    long hitsBefore = statistics().get("hibernate:default-query-results-region").getHitCount();
+
+    ucsbDiningCommonsRepository.findAll();
+    long hitsAfterRepeat = statistics().get("hibernate:default-query-results-region").getHitCount();
+    ucsbDiningCommonsRepository.save(commons("dlg"));
+    List<UCSBDiningCommons> afterWrite = (List<UCSBDiningCommons>) ucsbDiningCommonsRepository.findAll();
+
+    assertEquals(hitsBefore + 1, hitsAfterRepeat);
+    assertEquals(2, afterWrite.size());
+  }
+}
@@ -0,0 +1,56 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StripedCountsTests {
+
+  private StripedCounts<String> counts;
+
+  @BeforeEach
+  void loadCounts() {
+    counts = new StripedCounts<>();
+    counts.reconcile(Map.of("Evergreen", 2L, "Decidous", 3L));
+  }
+
+  @Test
+  void test_writes_move_the_counts_and_the_snapshot_leaves_out_zeros() {
+    counts.increment("Palm");
+    counts.increment("Evergreen");
+    counts.decrement("Decidous");
+    counts.decrement("Palm");
+
+    assertEquals(Map.of("Evergreen", 3L, "Decidous", 2L), counts.snapshot());
+  }
+
+  @Test
+  void test_concurrent_writers_are_all_counted() throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 8000; i++) {
+      pool.execute(() -> counts.increment("Evergreen"));
+    }
+    pool.shutdown();
+    pool.awaitTermination(10, TimeUnit.SECONDS);
+
+    assertEquals(Map.of("Evergreen", 8002L, "Decidous", 3L), counts.snapshot());
+  }
+
+  @Test
+  void test_reconcile_corrects_drifted_new_and_vanished_keys() {
+    counts.increment("Decidous");
+    counts.increment("Cactus");
+
+    int corrected = counts.reconcile(Map.of("Decidous", 3L, "Evergreen", 2L, "Palm", 1L));
+
+    assertEquals(3, corrected);
+    assertEquals(Map.of("Decidous", 3L, "Evergreen", 2L, "Palm", 1L), counts.snapshot());
+    assertEquals(0, counts.reconcile(Map.of("Decidous", 3L, "Evergreen", 2L, "Palm", 1L)));
+  }
+}
@@ -0,0 +1,34 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.entities.Movie;
+
+class TableVersionServiceTests {
+
+  @Test
+  void test_bump_changes_only_that_tables_etag() {
+    TableVersionService service = new TableVersionService();
+    String books = service.etag(Book.class);
+    String movies = service.etag(Movie.class);
+
+    service.bump(Book.class);
+
+    assertEquals(1, service.getVersion(Book.class));
+    assertNotEquals(books, service.etag(Book.class));
+    assertEquals(movies, service.etag(Movie.class));
+  }
+
+  @Test
+  void test_etag_is_a_strong_quoted_tag() {
+    String etag = new TableVersionService().etag(Book.class);
+
+    assertTrue(etag.startsWith("\"Book-"));
+    assertTrue(etag.endsWith("-0\""));
+  }
+}
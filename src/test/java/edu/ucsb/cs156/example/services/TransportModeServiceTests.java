@@ -0,0 +1,86 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import edu.ucsb.cs156.example.entities.TransportMode;
+import edu.ucsb.cs156.example.repositories.TransportModeRepository;
+
+class TransportModeServiceTests {
+
+  private TransportModeRepository transportModeRepository;
+  private TransportModeService transportModes;
+
+  private final TransportMode bus = TransportMode.builder().id(1).name("bus").build();
+
+  @BeforeEach
+  void loadDictionary() {
+    transportModeRepository = mock(TransportModeRepository.class);
+    when(transportModeRepository.findAll()).thenReturn(List.of(bus));
+    transportModes = new TransportModeService(transportModeRepository);
+    transportModes.reload();
+  }
+
+  @Test
+  void test_known_modes_are_encoded_without_reading_the_table() {
+    assertSame(bus, transportModes.encode("bus"));
+    assertSame(bus, transportModes.find("bus").get());
+    assertNull(transportModes.encode(null));
+
+    verify(transportModeRepository, times(0)).findByName(any());
+  }
+
+  @Test
+  void test_a_new_mode_is_added_once() {
+    TransportMode bike = TransportMode.builder().id(51).name("bike").build();
+    when(transportModeRepository.findByName("bike")).thenReturn(Optional.empty());
+    when(transportModeRepository.save(any())).thenReturn(bike);
+
+    assertSame(bike, transportModes.encode("bike"));
+    assertSame(bike, transportModes.encode("bike"));
+
+    verify(transportModeRepository, times(1)).save(TransportMode.builder().name("bike").build());
+  }
+
+  @Test
+  void test_a_mode_inserted_elsewhere_first_is_read_back() {
+    TransportMode ferry = TransportMode.builder().id(151).name("ferry").build();
+    when(transportModeRepository.findByName("ferry")).thenReturn(Optional.empty(), Optional.of(ferry));
+    when(transportModeRepository.save(any())).thenThrow(new DataIntegrityViolationException("transport_modes_name_key"));
+
+    assertSame(ferry, transportModes.encode("ferry"));
+    assertSame(ferry, transportModes.encode("ferry"));
+
+    verify(transportModeRepository, times(1)).save(any());
+    verify(transportModeRepository, times(2)).findByName("ferry");
+  }
+
+  @Test
+  void test_find_picks_up_modes_added_elsewhere() {
+    TransportMode tram = TransportMode.builder().id(101).name("tram").build();
+    when(transportModeRepository.findByName("tram")).thenReturn(Optional.of(tram));
+    when(transportModeRepository.findByName("zeppelin")).thenReturn(Optional.empty());
+
+    assertSame(tram, transportModes.find("tram").get());
+    assertSame(tram, transportModes.encode("tram"));
+    assertTrue(transportModes.find("zeppelin").isEmpty());
+
+    verify(transportModeRepository, times(1)).findByName("tram");
+    verify(transportModeRepository, times(0)).save(any());
+    assertEquals(1, transportModes.encode("bus").getId());
+  }
+}
@@ -0,0 +1,71 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.Tree;
+import edu.ucsb.cs156.example.entities.TreeCategory;
+import edu.ucsb.cs156.example.repositories.TreeRepository;
+
+class TreeFacetServiceTests {
+
+  private TreeRepository treeRepository;
+  private TreeFacetService facets;
+
+  private static Tree tree(String category) {
+    return Tree.builder().name("tree").category(category).build();
+  }
+
+  private static List<Object[]> rows(Object[]... rows) {
+    return new ArrayList<>(List.of(rows));
+  }
+
+  private List<String> counts() {
+    return facets.getFacets().stream()
+        .map(c -> c.getCategory() + "=" + c.getCount())
+        .collect(Collectors.toList());
+  }
+
+  @BeforeEach
+  void loadFacets() {
+    treeRepository = mock(TreeRepository.class);
+    when(treeRepository.countByCategory()).thenReturn(rows(
+        new Object[] { "Evergreen", 2L },
+        new Object[] { "Decidous", 3L }));
+    facets = new TreeFacetService(treeRepository);
+    facets.reconcile();
+  }
+
+  @Test
+  void test_writes_move_the_counts() {
+    facets.added(tree(null));
+    facets.addedAll(List.of(tree("Palm"), tree("Evergreen")));
+    facets.removed(tree("Decidous"));
+    facets.changed("Evergreen", tree("Palm"));
+
+    assertEquals(List.of("=1", "Decidous=2", "Evergreen=2", "Palm=2"), counts());
+  }
+
+  @Test
+  void test_category_facets_sum_the_counts_of_each_subtree() {
+    List<TreeCategory> categories = List.of(
+        TreeCategory.builder().id(1L).name("Tree").build(),
+        TreeCategory.builder().id(2L).name("Evergreen").parentId(1L).build(),
+        TreeCategory.builder().id(3L).name("Decidous").parentId(1L).build(),
+        TreeCategory.builder().id(4L).name("Palm").build());
+
+    List<String> totals = facets.getCategoryFacets(categories).stream()
+        .map(c -> c.getName() + "=" + c.getCount())
+        .collect(Collectors.toList());
+
+    assertEquals(List.of("Decidous=3", "Evergreen=2", "Palm=0", "Tree=5"), totals);
+  }
+}
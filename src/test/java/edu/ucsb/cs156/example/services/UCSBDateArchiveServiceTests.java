@@ -0,0 +1,40 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+
+class UCSBDateArchiveServiceTests {
+
+  @Test
+  void test_oldest_kept_quarter_counts_back_across_years() {
+    assertEquals("20222", UCSBDateArchiveService.oldestKeptQuarter(LocalDate.parse("2022-05-01"), 0));
+    assertEquals("20214", UCSBDateArchiveService.oldestKeptQuarter(LocalDate.parse("2022-01-15"), 1));
+    assertEquals("20204", UCSBDateArchiveService.oldestKeptQuarter(LocalDate.parse("2022-12-31"), 8));
+    assertEquals("20203", UCSBDateArchiveService.oldestKeptQuarter(LocalDate.parse("2022-07-01"), 8));
+  }
+
+  @Test
+  void test_archiving_rows_bumps_the_table_version_and_reloads_upcoming_dates() {
+    UCSBDateArchiveService archive = new UCSBDateArchiveService();
+    archive.ucsbDateRepository = mock(UCSBDateRepository.class);
+    archive.tableVersionService = new TableVersionService();
+    archive.upcomingDates = mock(UpcomingDatesService.class);
+    when(archive.ucsbDateRepository.archiveQuartersBefore("20222")).thenReturn(3, 0);
+
+    assertEquals(3, archive.archiveQuartersBefore("20222"));
+    assertEquals(0, archive.archiveQuartersBefore("20222"));
+
+    assertEquals(1, archive.tableVersionService.getVersion(UCSBDate.class));
+    verify(archive.upcomingDates, times(1)).reload();
+  }
+}
@@ -0,0 +1,81 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+
+class UpcomingDatesServiceTests {
+
+  private UpcomingDatesService upcomingDates;
+
+  private static UCSBDate date(long id, String name, String localDateTime) {
+    return UCSBDate.builder()
+        .id(id)
+        .quarterYYYYQ("20222")
+        .name(name)
+        .localDateTime(localDateTime == null ? null : LocalDateTime.parse(localDateTime))
+        .build();
+  }
+
+  private List<String> upcoming(String after, int n) {
+    return upcomingDates.upcoming(LocalDateTime.parse(after), n).stream()
+        .map(UCSBDate::getName)
+        .collect(Collectors.toList());
+  }
+
+  @BeforeEach
+  void loadIndex() {
+    UCSBDateRepository repository = mock(UCSBDateRepository.class);
+    when(repository.findAll()).thenReturn(List.of(
+        date(1, "lastDayOfClasses", "2022-06-03T00:00:00"),
+        date(2, "firstDayOfClasses", "2022-03-28T00:00:00"),
+        date(3, "finalsBegin", "2022-06-04T00:00:00"),
+        date(4, "unscheduled", null)));
+    upcomingDates = new UpcomingDatesService(repository);
+    upcomingDates.reload();
+  }
+
+  @Test
+  void test_upcoming_returns_the_next_n_dates_strictly_after_the_time() {
+    assertEquals(List.of("firstDayOfClasses", "lastDayOfClasses"), upcoming("2022-01-01T00:00:00", 2));
+    assertEquals(List.of("finalsBegin"), upcoming("2022-06-03T00:00:00", 5));
+    assertEquals(List.of(), upcoming("2022-06-04T00:00:00", 5));
+  }
+
+  @Test
+  void test_dates_at_the_same_time_are_all_kept() {
+    upcomingDates.put(date(5, "commencement", "2022-06-04T00:00:00"));
+
+    assertEquals(List.of("finalsBegin", "commencement"), upcoming("2022-06-03T12:00:00", 5));
+  }
+
+  @Test
+  void test_put_moves_an_existing_date_and_remove_drops_it() {
+    upcomingDates.put(date(2, "firstDayOfClasses", "2022-07-01T00:00:00"));
+    assertEquals(List.of("lastDayOfClasses", "finalsBegin", "firstDayOfClasses"),
+        upcoming("2022-01-01T00:00:00", 5));
+
+    upcomingDates.remove(1);
+    upcomingDates.remove(99);
+    assertEquals(List.of("finalsBegin", "firstDayOfClasses"), upcoming("2022-01-01T00:00:00", 5));
+  }
+
+  @Test
+  void test_putAll_indexes_every_date() {
+    upcomingDates.putAll(List.of(
+        date(6, "summerStarts", "2022-06-21T00:00:00"),
+        date(7, "summerEnds", "2022-09-09T00:00:00")));
+
+    assertEquals(List.of("summerStarts", "summerEnds"), upcoming("2022-06-05T00:00:00", 5));
+  }
+}
@@ -0,0 +1,34 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.CacheStatistics;
+
+class UserCacheServiceTests {
+
+  private final User user = User.builder().id(1L).googleSub("sub1").email("a@ucsb.edu").build();
+
+  @Test
+  void test_each_put_replaces_the_entry() {
+    UserCacheService cache = new UserCacheService(10, Duration.ofMinutes(5));
+    User promoted = User.builder().id(1L).googleSub("sub1").email("a@ucsb.edu").admin(true).build();
+
+    cache.put("sub1", user);
+    cache.put("sub1", promoted);
+
+    CacheStatistics stats = cache.getStatistics();
+    assertEquals("users", stats.getName());
+    assertEquals(1, stats.getSize());
+  }
+
+  @Test
+  void test_key_falls_back_to_email() {
+    assertEquals("sub1", UserCacheService.keyFor("sub1", "a@ucsb.edu"));
+    assertEquals("a@ucsb.edu", UserCacheService.keyFor(null, "a@ucsb.edu"));
+  }
+}
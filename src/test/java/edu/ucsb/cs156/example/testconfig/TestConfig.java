@@ -5,6 +5,11 @@ import org.springframework.context.annotation.Bean;
 
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.services.OAuth2LoginUserService;
+import edu.ucsb.cs156.example.services.TableVersionService;
+import edu.ucsb.cs156.example.services.UserCacheService;
+
+import java.time.Duration;
 
 @TestConfiguration
 public class TestConfig {
@@ -18,4 +23,19 @@ public class TestConfig {
     public GrantedAuthoritiesService grantedAuthoritiesService() {
         return new GrantedAuthoritiesService();
     }
+
+    @Bean
+    public UserCacheService userCacheService() {
+        return new UserCacheService(100, Duration.ofMinutes(5));
+    }
+
+    @Bean
+    public OAuth2LoginUserService oauth2LoginUserService() {
+        return new OAuth2LoginUserService();
+    }
+
+    @Bean
+    public TableVersionService tableVersionService() {
+        return new TableVersionService();
+    }
 }